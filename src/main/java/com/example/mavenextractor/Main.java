@@ -1,7 +1,12 @@
 package com.example.mavenextractor;
 
+import com.example.mavenextractor.config.BundleMode;
 import com.example.mavenextractor.config.Config;
+import com.example.mavenextractor.config.DecompilerMode;
+import com.example.mavenextractor.config.ExtractionOptions;
 import com.example.mavenextractor.detector.MavenDetector;
+import com.example.mavenextractor.extractor.EntryFilter;
+import com.example.mavenextractor.scheduler.SchedulingPolicy;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -9,8 +14,16 @@ import picocli.CommandLine.Option;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.example.mavenextractor.config.Config.THIRD_DIR;
 
@@ -38,10 +51,53 @@ import static com.example.mavenextractor.config.Config.THIRD_DIR;
         "  # Extract only direct dependencies (exclude transitive)",
         "  java -jar maven-dependency-extractor.jar /path/to/project --direct-only",
         "",
+        "  # Process 8 dependencies in parallel",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --threads 8",
+        "",
+        "  # Virtual threads for a slow, network-mounted ~/.m2",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --virtual-threads --io-concurrency 2000",
+        "",
+        "  # Start the largest artifacts first to shorten the total run",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --schedule longest_first",
+        "",
+        "  # Continue a run that was killed, skipping what it already finished",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --resume",
+        "",
+        "  # Only re-extract dependencies that changed since the last run",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --incremental",
+        "",
+        "  # Extract only Java and Kotlin sources, without META-INF",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --include '**/*.java' --include '**/*.kt' \\",
+        "      --exclude 'META-INF/**'",
+        "",
+        "  # Write one indexed bundle for the whole project instead of loose files",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --bundle project",
+        "",
+        "  # Keep the decompiler loaded instead of starting a JVM per binary-only artifact",
+        "  java -jar maven-dependency-extractor.jar /path/to/project -d java-decompiler.jar --decompiler-mode in_process",
+        "",
+        "  # Decompile up to 20 small binary-only artifacts per decompiler process",
+        "  java -jar maven-dependency-extractor.jar /path/to/project -d java-decompiler.jar --decompile-batch 20",
+        "",
+        "  # Keep up to 5 GB of decompiled artifacts for other projects and later runs",
+        "  java -jar maven-dependency-extractor.jar /path/to/project -d java-decompiler.jar --decompile-cache-size 5g",
+        "",
+        "  # Keep decompiled artifacts, up to 2 GB, in a directory of your choice",
+        "  java -jar maven-dependency-extractor.jar /path/to/project -d java-decompiler.jar --decompile-cache /data/dc",
+        "",
+        "  # Decompile on four long-lived decompiler JVMs",
+        "  java -jar maven-dependency-extractor.jar /path/to/project -d java-decompiler.jar --decompiler-mode workers \\",
+        "      --decompile-concurrency 4 --decompiler-workers 4",
+        "",
+        "  # Stop after 10 minutes, keeping whatever completed",
+        "  java -jar maven-dependency-extractor.jar /path/to/project --deadline 10m",
+        "",
         "",
         "Environment Variables:",
         "  MAVEN_HOME  Maven installation directory",
-        "  THIRD_DIR   Output directory name (default: third, relative to project dir)"
+        "  THIRD_DIR   Output directory name (default: third, relative to project dir)",
+        "  DECOMPILE_CACHE_DIR  Decompile cache directory when the cache is on without --decompile-cache "
+            + "(default: ~/.maven_deps_cache/decompiled)"
     }
 )
 public class Main implements Callable<Integer> {
@@ -66,6 +122,145 @@ public class Main implements Callable<Integer> {
     )
     private boolean directOnly = false;
 
+    @Option(
+        names = {"--threads"},
+        paramLabel = "N",
+        description = "Number of concurrent archive extractions; without --virtual-threads, "
+            + "also the number of concurrent artifact lookups (default: number of processors)"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+        names = {"--virtual-threads"},
+        description = "Run pipeline workers on virtual threads (for slow or network-mounted repositories)"
+    )
+    private boolean virtualThreads = false;
+
+    @Option(
+        names = {"--io-concurrency"},
+        paramLabel = "N",
+        description = "Concurrent artifact lookups with --virtual-threads (default: ${DEFAULT-VALUE})"
+    )
+    private int ioConcurrency = 1024;
+
+    @Option(
+        names = {"--decompile-concurrency"},
+        paramLabel = "N",
+        description = "Maximum concurrent decompiler processes (default: half the number of processors)"
+    )
+    private int decompileConcurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    @Option(
+        names = {"--decompile-batch"},
+        paramLabel = "N",
+        description = "Decompile up to N queued binary-only artifacts with one decompiler process "
+            + "(default: ${DEFAULT-VALUE}, no batching)"
+    )
+    private int decompileBatch = 1;
+
+    @Option(
+        names = {"--queue-capacity"},
+        paramLabel = "N",
+        description = "Items each pipeline stage may queue before blocking upstream (default: ${DEFAULT-VALUE})"
+    )
+    private int queueCapacity = 256;
+
+    @Option(
+        names = {"--schedule"},
+        paramLabel = "POLICY",
+        description = "Processing order: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})"
+    )
+    private SchedulingPolicy schedule = SchedulingPolicy.TREE_ORDER;
+
+    @Option(
+        names = {"--resume"},
+        description = "Resume an interrupted run: skip dependencies the run journal (<output>.journal) "
+            + "records as completed"
+    )
+    private boolean resume = false;
+
+    @Option(
+        names = {"--incremental"},
+        description = "Skip dependencies whose output is unchanged since the last run "
+            + "(fingerprints are kept in .maven_deps_cache)"
+    )
+    private boolean incremental = false;
+
+    @Option(
+        names = {"--skip-unchanged"},
+        description = "Re-extract into existing output without rewriting files whose size and "
+            + "timestamp or CRC-32 match their archive entry; written files keep the entry timestamp"
+    )
+    private boolean skipUnchanged = false;
+
+    @Option(
+        names = {"--deadline"},
+        paramLabel = "DURATION",
+        converter = DurationConverter.class,
+        description = "Time budget for the whole run, e.g. 90s, 10m, 1h30m or PT10M. "
+            + "Outstanding work is cancelled when it runs out; completed artifacts are kept"
+    )
+    private Duration deadline;
+
+    @Option(
+        names = {"--include"},
+        paramLabel = "GLOB",
+        description = "Extract only archive entries matching this glob, e.g. '**/*.java' (repeatable). "
+            + "'*' stays within a directory, '**/' spans zero or more directories"
+    )
+    private List<String> includes = new ArrayList<>();
+
+    @Option(
+        names = {"--exclude"},
+        paramLabel = "GLOB",
+        description = "Skip archive entries matching this glob, e.g. 'META-INF/**' (repeatable)"
+    )
+    private List<String> excludes = new ArrayList<>();
+
+    @Option(
+        names = {"--bundle"},
+        paramLabel = "MODE",
+        description = "Output layout: ${COMPLETION-CANDIDATES}. ARTIFACT writes one <artifactId>.zip per "
+            + "artifact, PROJECT also merges them into <output>.zip (default: ${DEFAULT-VALUE})"
+    )
+    private BundleMode bundleMode = BundleMode.NONE;
+
+    @Option(
+        names = {"--decompiler-mode"},
+        paramLabel = "MODE",
+        description = "How the decompiler runs: ${COMPLETION-CANDIDATES}. PROCESS starts a JVM per artifact, "
+            + "IN_PROCESS keeps it loaded in this JVM for the whole run, WORKERS keeps a pool of "
+            + "decompiler JVMs (default: ${DEFAULT-VALUE})"
+    )
+    private DecompilerMode decompilerMode = DecompilerMode.PROCESS;
+
+    @Option(
+        names = {"--decompiler-workers"},
+        paramLabel = "N",
+        description = "Decompiler worker processes with --decompiler-mode workers "
+            + "(default: the decompile concurrency)"
+    )
+    private Integer decompilerWorkers;
+
+    @Option(
+        names = {"--decompile-cache"},
+        paramLabel = "DIR",
+        description = "Turn on a persistent cache of decompiled artifacts and classes in DIR, shared across "
+            + "projects. Off unless this or --decompile-cache-size is given"
+    )
+    private String decompileCacheDir;
+
+    @Option(
+        names = {"--decompile-cache-size"},
+        paramLabel = "SIZE",
+        converter = SizeConverter.class,
+        description = "Turn on the decompile cache with this size cap for artifacts and classes together, "
+            + "e.g. 500m or 2g; least recently used entries are evicted beyond it, 0 keeps the cache off. "
+            + "The directory is --decompile-cache, else ~/.maven_deps_cache/decompiled "
+            + "(can be overridden by DECOMPILE_CACHE_DIR env var). Default with --decompile-cache: 2g"
+    )
+    private Long decompileCacheBytes;
+
     @CommandLine.Parameters(
         index = "0",
         paramLabel = "PROJECT_DIR",
@@ -115,13 +310,44 @@ public class Main implements Callable<Integer> {
                 outputPath = Paths.get(outputDir);
             }
 
+            if (deadline != null && (deadline.isNegative() || deadline.isZero())) {
+                System.err.println("Error: --deadline must be positive");
+                return 1;
+            }
+
+            int workers = decompilerWorkers != null ? decompilerWorkers : decompileConcurrency;
+            // The cache is opt-in: it writes up to its cap outside the project
+            long cacheBytes = decompileCacheBytes != null ? decompileCacheBytes : Config.DEFAULT_DECOMPILE_CACHE_BYTES;
+            boolean cacheRequested = decompileCacheDir != null || decompileCacheBytes != null;
+            Optional<Path> decompileCache = cacheRequested && cacheBytes > 0
+                ? Optional.of(decompileCacheDir != null ? Paths.get(decompileCacheDir) : Config.DECOMPILE_CACHE_DIR)
+                : Optional.empty();
+            if (threads < 1 || ioConcurrency < 1 || decompileConcurrency < 1 || decompileBatch < 1
+                    || queueCapacity < 1 || workers < 1) {
+                System.err.println("Error: --threads, --io-concurrency, --decompile-concurrency, --decompile-batch, "
+                    + "--queue-capacity and --decompiler-workers must be at least 1");
+                return 1;
+            }
+
+            EntryFilter entryFilter;
+            try {
+                entryFilter = EntryFilter.of(includes, excludes);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+                return 1;
+            }
+
             // Create extractor and run
             MavenDependencyExtractor extractor = new MavenDependencyExtractor(
                 projectPath,
                 mavenCommand.get(),
                 outputPath,
                 decompilerPathResolved,
-                directOnly
+                directOnly,
+                new ExtractionOptions(
+                    threads, virtualThreads, ioConcurrency, decompileConcurrency, decompileBatch, queueCapacity, schedule,
+                    resume, incremental, Optional.ofNullable(deadline), entryFilter,
+                    bundleMode, skipUnchanged, decompilerMode, workers, decompileCache, cacheBytes)
             );
 
             extractor.run();
@@ -135,11 +361,84 @@ public class Main implements Callable<Integer> {
         }
     }
 
+    /**
+     * Parses durations written as ISO-8601 (PT10M) or as a compact sequence such as 1h30m, 90s or 500ms.
+     */
+    static class DurationConverter implements CommandLine.ITypeConverter<Duration> {
+        private static final Pattern COMPACT = Pattern.compile("(\\d+)(ms|h|m|s)");
+
+        @Override
+        public Duration convert(String value) {
+            String text = value.trim().toLowerCase(Locale.ROOT);
+            if (text.startsWith("p")) {
+                try {
+                    return Duration.parse(text.toUpperCase(Locale.ROOT));
+                } catch (DateTimeParseException e) {
+                    throw new CommandLine.TypeConversionException("Invalid duration: " + value);
+                }
+            }
+
+            Matcher matcher = COMPACT.matcher(text);
+            Duration total = Duration.ZERO;
+            int end = 0;
+            try {
+                while (matcher.find() && matcher.start() == end) {
+                    long amount = Long.parseLong(matcher.group(1));
+                    total = total.plus(switch (matcher.group(2)) {
+                        case "h" -> Duration.ofHours(amount);
+                        case "m" -> Duration.ofMinutes(amount);
+                        case "s" -> Duration.ofSeconds(amount);
+                        default -> Duration.ofMillis(amount);
+                    });
+                    end = matcher.end();
+                }
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new CommandLine.TypeConversionException("Duration too large: " + value);
+            }
+            if (end == 0 || end != text.length()) {
+                throw new CommandLine.TypeConversionException("Invalid duration: " + value);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Parses sizes written as a number of bytes with an optional k, m or g suffix, such as 500m or 2g.
+     */
+    static class SizeConverter implements CommandLine.ITypeConverter<Long> {
+        private static final Pattern SIZE = Pattern.compile("(\\d+)([kmg]?)b?");
+
+        @Override
+        public Long convert(String value) {
+            Matcher matcher = SIZE.matcher(value.trim().toLowerCase(Locale.ROOT));
+            if (!matcher.matches()) {
+                throw new CommandLine.TypeConversionException("Invalid size: " + value);
+            }
+            int shift = switch (matcher.group(2)) {
+                case "k" -> 10;
+                case "m" -> 20;
+                case "g" -> 30;
+                default -> 0;
+            };
+            try {
+                long amount = Long.parseLong(matcher.group(1));
+                if (amount > Long.MAX_VALUE >> shift) {
+                    throw new CommandLine.TypeConversionException("Size too large: " + value);
+                }
+                return amount << shift;
+            } catch (NumberFormatException e) {
+                throw new CommandLine.TypeConversionException("Invalid size: " + value);
+            }
+        }
+    }
+
     /**
      * Main entry point.
      */
     public static void main(String[] args) {
-        int exitCode = new CommandLine(new Main()).execute(args);
+        int exitCode = new CommandLine(new Main())
+            .setCaseInsensitiveEnumValuesAllowed(true)
+            .execute(args);
         System.exit(exitCode);
     }
 }
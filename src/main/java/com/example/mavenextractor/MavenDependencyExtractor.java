@@ -1,20 +1,55 @@
 package com.example.mavenextractor;
 
+import com.example.mavenextractor.bundle.BundleWriter;
+import com.example.mavenextractor.cache.ClassSourceCache;
+import com.example.mavenextractor.cache.DecompileCache;
+import com.example.mavenextractor.cache.FingerprintStore;
+import com.example.mavenextractor.config.BundleMode;
 import com.example.mavenextractor.config.Config;
+import com.example.mavenextractor.config.DecompilerMode;
+import com.example.mavenextractor.config.ExtractionOptions;
 import com.example.mavenextractor.decompiler.DecompilerWrapper;
+import com.example.mavenextractor.extractor.EntryFilter;
 import com.example.mavenextractor.extractor.Extractor;
+import com.example.mavenextractor.extractor.ExtractorMetrics;
+import com.example.mavenextractor.journal.RunJournal;
 import com.example.mavenextractor.locator.ArtifactLocator;
 import com.example.mavenextractor.model.ArtifactLocation;
 import com.example.mavenextractor.model.Dependency;
+import com.example.mavenextractor.model.ExtractionOutcome;
 import com.example.mavenextractor.model.ExtractionStats;
 import com.example.mavenextractor.parser.DependencyParser;
+import com.example.mavenextractor.pipeline.ExtractionPipeline;
+import com.example.mavenextractor.pipeline.Step;
+import com.example.mavenextractor.pipeline.WorkItem;
+import com.example.mavenextractor.scheduler.CostEstimator;
+import com.example.mavenextractor.scheduler.WorkScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
  * Main orchestrator for Maven dependency extraction.
@@ -24,14 +59,40 @@ public class MavenDependencyExtractor {
 
     private static final Logger logger = LoggerFactory.getLogger(MavenDependencyExtractor.class);
 
+    private static final String BUNDLE_SUFFIX = ".zip";
+
+    /** Subdirectory of the decompile cache that holds the class source cache. */
+    private static final String CLASS_CACHE_DIR = "classes";
+
     private final Path projectDir;
     private final Path outputDir;
     private final String mavenCommand;
     private final DecompilerWrapper decompiler;
     private final boolean directDependenciesOnly;
+    private final ExtractionOptions options;
 
     private final DependencyParser parser;
     private final ArtifactLocator locator;
+    private final WorkScheduler scheduler;
+    private final FingerprintStore fingerprints;
+    private final DecompileCache decompileCache;
+    private final ClassSourceCache classCache;
+
+    // Dependencies sharing an artifactId share an output directory; serialize writes to it
+    private final ConcurrentMap<Path, ReentrantLock> outputLocks = new ConcurrentHashMap<>();
+    // Outputs this run has started writing; only these can be partial
+    private final Set<Path> writtenOutputs = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger decompileBatches = new AtomicInteger();
+
+    // What to cancel when the run deadline passes; swapped as the run moves through its phases
+    private final Object deadlineLock = new Object();
+    private boolean deadlineReached;
+    private Runnable deadlineAction;
+
+    private volatile Thread downloadThread;
+
+    // Outcomes recorded so far, so a run cut short by the deadline can still report them
+    private final AtomicReference<ExtractionStats> runStats = new AtomicReference<>();
 
     /**
      * Creates a new MavenDependencyExtractor.
@@ -65,15 +126,55 @@ public class MavenDependencyExtractor {
         Path outputDir,
         Path decompilerPath,
         boolean directDependenciesOnly
+    ) {
+        this(projectDir, mavenCommand, outputDir, decompilerPath, directDependenciesOnly,
+            ExtractionOptions.defaults());
+    }
+
+    /**
+     * Creates a new MavenDependencyExtractor with explicit tuning options.
+     *
+     * @param projectDir the Maven project directory
+     * @param mavenCommand the Maven command path
+     * @param outputDir the output directory for extracted sources
+     * @param decompilerPath the path to the decompiler JAR (optional)
+     * @param directDependenciesOnly if true, only extract direct dependencies
+     * @param options the tuning options for this run
+     */
+    public MavenDependencyExtractor(
+        Path projectDir,
+        String mavenCommand,
+        Path outputDir,
+        Path decompilerPath,
+        boolean directDependenciesOnly,
+        ExtractionOptions options
     ) {
         this.projectDir = projectDir;
         this.mavenCommand = mavenCommand;
         this.outputDir = outputDir;
-        this.decompiler = decompilerPath != null ? new DecompilerWrapper(decompilerPath) : null;
+        this.decompiler = decompilerPath != null
+            ? new DecompilerWrapper(decompilerPath, options.decompilerMode(), options.decompilerWorkers())
+            : null;
         this.directDependenciesOnly = directDependenciesOnly;
+        this.options = options;
 
         this.parser = new DependencyParser(mavenCommand, projectDir, directDependenciesOnly);
         this.locator = new ArtifactLocator();
+        this.fingerprints = options.incremental()
+            ? new FingerprintStore(projectDir.resolve(Config.CACHE_DIR))
+            : null;
+        this.decompileCache = decompiler != null
+            ? options.decompileCacheDir().map(dir -> new DecompileCache(dir, options.decompileCacheBytes())).orElse(null)
+            : null;
+        this.classCache = decompileCache != null
+            ? new ClassSourceCache(options.decompileCacheDir().get().resolve(CLASS_CACHE_DIR))
+            : null;
+        this.scheduler = new WorkScheduler(
+            options.schedulingPolicy(),
+            locator,
+            new CostEstimator(decompiler != null && decompiler.isAvailable()),
+            options.virtualThreads() ? options.ioConcurrency() : options.threads()
+        );
     }
 
     /**
@@ -87,10 +188,27 @@ public class MavenDependencyExtractor {
         logger.info("Output Directory: {}", outputDir);
         logger.info("Maven Command: {}", mavenCommand);
         logger.info("Direct Dependencies Only: {}", directDependenciesOnly);
+        logger.info("Threads: {} ({})", options.threads(),
+            options.virtualThreads() ? "virtual, " + options.ioConcurrency() + " in flight" : "platform");
+        logger.info("Decompile Concurrency: {}", options.decompileConcurrency());
+        logger.info("Stage Queue Capacity: {}", options.queueCapacity());
+        logger.info("Scheduling Policy: {}", options.schedulingPolicy());
+        logger.info("Resume: {}", options.resume());
+        logger.info("Incremental: {}", options.incremental());
+        logger.info("Deadline: {}", options.deadline().map(Object::toString).orElse("none"));
+        logger.info("Entry Filter: {}", options.entryFilter().acceptsAll() ? "all entries" : options.entryFilter());
+        logger.info("Bundle: {}", options.bundleMode());
+        logger.info("Skip Unchanged Files: {}", options.skipUnchanged());
         logger.info("Decompiler: {}",
             decompiler != null && decompiler.isAvailable() ? "Available" : "Not available");
+        logger.info("Decompiler Mode: {}", options.decompilerMode() == DecompilerMode.WORKERS
+            ? "WORKERS (" + options.decompilerWorkers() + " processes)" : options.decompilerMode());
+        logger.info("Decompile Cache: {}", decompileCache != null
+            ? options.decompileCacheDir().get() + " (" + options.decompileCacheBytes() / (1024 * 1024) + " MB)"
+            : "disabled");
         logger.info("============================================================");
 
+        ScheduledExecutorService deadlineTimer = options.deadline().map(this::startDeadlineTimer).orElse(null);
         try {
             // 1. Get dependency tree
             List<Dependency> dependencies = parser.getDependencyTree();
@@ -99,94 +217,726 @@ public class MavenDependencyExtractor {
                 return;
             }
 
-            // 2. Download sources
-            parser.downloadSources(dependencies);
-
-            // 3. Process each dependency
+            // 2. Process each dependency while missing source JARs are downloaded
             logger.info("Processing dependencies...");
             Files.createDirectories(outputDir);
 
-            ExtractionStats stats = ExtractionStats.initial(dependencies.size());
-
-            for (int i = 0; i < dependencies.size(); i++) {
-                Dependency dep = dependencies.get(i);
-                logger.info("\n[{}/{}] Processing: {}", i + 1, stats.total(), dep.key());
-
-                stats = processDependency(dep, i, stats);
+            ExtractionStats stats = processAll(dependencies);
+            if (decompileCache != null) {
+                // Class sources are stored without evicting, one small entry at a time
+                decompileCache.trim();
+            }
+            if (options.bundleMode() == BundleMode.PROJECT) {
+                writeProjectBundle();
             }
 
-            // 4. Print statistics
+            // 3. Print statistics
             printStatistics(stats);
 
         } catch (Exception e) {
+            if (isDeadlineReached()) {
+                ExtractionStats partial = runStats.get();
+                if (partial == null) {
+                    logger.warn("Deadline reached before any dependency was processed");
+                } else {
+                    printStatistics(partial.withUnprocessedAsNotStarted());
+                }
+                return;
+            }
             logger.error("Extraction failed", e);
             throw new RuntimeException("Extraction failed", e);
+        } finally {
+            if (deadlineTimer != null) {
+                deadlineTimer.shutdownNow();
+            }
+            closeDecompiler();
+        }
+    }
+
+    private void closeDecompiler() {
+        if (decompiler != null) {
+            try {
+                decompiler.close();
+            } catch (IOException e) {
+                logger.debug("Failed to unload the decompiler", e);
+            }
         }
     }
 
     /**
-     * Processes a single dependency.
+     * Starts a timer that cancels the run once the deadline has passed. Until a pipeline
+     * registers its own cancellation, the deadline interrupts the running thread, which
+     * stops blocking Maven calls.
      */
-    private ExtractionStats processDependency(
-        Dependency dep,
-        int index,
-        ExtractionStats stats
-    ) {
-        // Find artifacts
-        ArtifactLocation location = locator.findArtifacts(dep);
+    private ScheduledExecutorService startDeadlineTimer(Duration deadline) {
+        Thread runner = Thread.currentThread();
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("deadline").daemon().factory());
 
-        if (location.hasSource()) {
-            // Source JAR available - extract it
-            Path sourcePath = location.sourcePath().get();
-            logger.info("  ✓ Found source JAR: {}", sourcePath.getFileName());
-
-            Path artifactDir = outputDir.resolve(dep.artifactId());
-            if (Extractor.extractArchive(sourcePath, artifactDir)) {
-                logger.info("  ✓ Source extracted to: {}", artifactDir);
-                return stats.incrementSourceExtracted();
-            } else {
-                return stats.incrementFailed();
+        timer.schedule(() -> {
+            logger.warn("Deadline of {} reached, cancelling remaining work", deadline);
+            Runnable action;
+            synchronized (deadlineLock) {
+                deadlineReached = true;
+                action = deadlineAction;
+                if (action == null) {
+                    // Interrupted under the lock, so onDeadline() sees the flag set if it is set at all
+                    runner.interrupt();
+                }
             }
-        } else if (location.hasBinary()) {
-            // Only binary JAR available - try decompilation
-            logger.info("  ⚠ Source JAR not found, using binary JAR");
+            if (action != null) {
+                action.run();
+            }
+        }, deadline.toMillis(), TimeUnit.MILLISECONDS);
 
-            if (decompiler != null && decompiler.isAvailable()) {
-                Path binaryPath = location.binaryPath().get();
-                logger.info("  → Decompiling: {}", binaryPath.getFileName());
-
-                Path artifactDir = outputDir.resolve(dep.artifactId());
-                Path tempDir = artifactDir.resolveSibling(artifactDir.getFileName() + "_temp");
-
-                if (decompiler.decompile(binaryPath, tempDir)) {
-                    // Move decompiled result to target directory
-                    if (Files.exists(tempDir)) {
-                        try {
-                            // Find actual output directory (Fernflower may create subdirectories)
-                            try (var stream = Files.list(tempDir)) {
-                                Optional<Path> firstItem = stream.findFirst();
-                                if (firstItem.isPresent()) {
-                                    Path srcPath = firstItem.get();
-                                    Extractor.copyDirectory(srcPath, artifactDir);
-                                    Extractor.deleteDirectory(tempDir);
-                                    logger.info("  ✓ Decompilation completed: {}", artifactDir);
-                                    return stats.incrementDecompiled();
-                                }
-                            }
-                        } catch (Exception e) {
-                            logger.error("Failed to organize decompiled output", e);
-                        }
+        return timer;
+    }
+
+    /**
+     * Registers what to cancel when the deadline passes, running it at once if it already has.
+     * Must be called on the runner thread: an interrupt the timer sent before there was anything
+     * to cancel is cleared, since the action now takes care of it.
+     */
+    private void onDeadline(Runnable action) {
+        boolean reached;
+        synchronized (deadlineLock) {
+            deadlineAction = action;
+            reached = deadlineReached;
+            if (reached) {
+                Thread.interrupted();
+            }
+        }
+        if (reached) {
+            action.run();
+        }
+    }
+
+    private boolean isDeadlineReached() {
+        synchronized (deadlineLock) {
+            return deadlineReached;
+        }
+    }
+
+    /**
+     * Feeds all dependencies through the staged pipeline and merges their outcomes.
+     */
+    private ExtractionStats processAll(List<Dependency> dependencies) throws InterruptedException, IOException {
+        int total = dependencies.size();
+        var stats = runStats;
+        stats.set(ExtractionStats.initial(total));
+
+        try (RunJournal journal = RunJournal.open(RunJournal.pathFor(outputDir), options.resume())) {
+            List<Dependency> remaining = new ArrayList<>(total);
+            for (Dependency dep : dependencies) {
+                Optional<RunJournal.Entry> done = journal.completed(dep);
+                if (done.isPresent()) {
+                    stats.updateAndGet(s -> s.record(done.get().outcome()));
+                } else {
+                    remaining.add(dep);
+                }
+            }
+            if (remaining.size() < total) {
+                logger.info("Resuming: {} of {} dependencies already completed", total - remaining.size(), total);
+            }
+
+            processRemaining(remaining, total, stats, journal);
+        }
+
+        return stats.get().withUnprocessedAsNotStarted();
+    }
+
+    /**
+     * Feeds the dependencies that still need work through the pipeline.
+     */
+    private void processRemaining(
+        List<Dependency> dependencies,
+        int total,
+        AtomicReference<ExtractionStats> stats,
+        RunJournal journal
+    ) throws InterruptedException {
+        Set<WorkItem> cancelled = ConcurrentHashMap.newKeySet();
+        Set<Path> completedOutputs = ConcurrentHashMap.newKeySet();
+
+        var pipeline = new ExtractionPipeline(options, new ExtractionPipeline.Handler() {
+            @Override
+            public Step locate(WorkItem item) {
+                return locateArtifacts(item);
+            }
+
+            @Override
+            public ExtractionOutcome extract(WorkItem item) {
+                return withOutputLock(item, MavenDependencyExtractor.this::extractSources);
+            }
+
+            @Override
+            public ExtractionOutcome decompile(WorkItem item) {
+                return withOutputLock(item, MavenDependencyExtractor.this::decompileBinary);
+            }
+
+            @Override
+            public List<ExtractionOutcome> decompileBatch(List<WorkItem> items) {
+                return decompileBinaries(items);
+            }
+        }, (item, outcome) -> {
+            recordFingerprint(item, outcome);
+            stats.updateAndGet(s -> s.record(outcome));
+            switch (outcome) {
+                case CANCELLED -> cancelled.add(item);
+                case NOT_STARTED -> { }
+                default -> {
+                    journal.record(item.dependency(), outcome, outputOf(item, outcome));
+                    if (outputOf(item, outcome) != null) {
+                        completedOutputs.add(outputOf(item, outcome));
                     }
                 }
-                return stats.incrementFailed();
+            }
+        });
+
+        onDeadline(() -> {
+            pipeline.cancel();
+            Thread download = downloadThread;
+            if (download != null) {
+                download.interrupt();
+            }
+        });
+
+        // Source JARs already in the local repository can be processed right away
+        List<WorkItem> ready = new ArrayList<>();
+        Map<String, WorkItem> awaiting = new ConcurrentHashMap<>();
+        for (Dependency dep : dependencies) {
+            WorkItem item = new WorkItem(dep, total);
+            if (locator.findSourceJar(dep).isPresent()) {
+                ready.add(item);
             } else {
-                logger.info("  ⚠ Skipped (decompiler not configured)");
-                return stats.incrementSkipped();
+                awaiting.put(dep.key(), item);
+            }
+        }
+        logger.info("{} dependencies have local source JARs, {} need downloading", ready.size(), awaiting.size());
+
+        submitAll(pipeline, ready);
+        if (awaiting.isEmpty()) {
+            logger.info("All source JARs available locally, skipping download");
+        } else {
+            submitAsDownloaded(pipeline, awaiting);
+        }
+        pipeline.awaitCompletion();
+
+        removePartialOutput(cancelled, completedOutputs);
+    }
+
+    /**
+     * Deletes what cancelled items left behind, so the output only contains complete artifacts.
+     * Outputs this run never started writing, such as those of an earlier run kept for
+     * {@code --incremental} or {@code --skip-unchanged}, and directories shared with an artifact
+     * that did complete are kept.
+     */
+    private void removePartialOutput(Set<WorkItem> cancelled, Set<Path> completedOutputs) {
+        for (WorkItem item : cancelled) {
+            Path artifactDir = outputPathOf(item.dependency());
+            if (!writtenOutputs.contains(artifactDir) || completedOutputs.contains(artifactDir)) {
+                continue;
+            }
+            try {
+                Extractor.deleteDirectory(artifactDir);
+                Extractor.deleteDirectory(tempDirOf(item.dependency()));
+                logger.info("Removed partial output of cancelled {}", item.dependency().key());
+            } catch (IOException e) {
+                logger.warn("Failed to remove partial output: {}", artifactDir, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the directory or bundle a finished item produced, or null if it produced none.
+     */
+    private Path outputOf(WorkItem item, ExtractionOutcome outcome) {
+        return switch (outcome) {
+            case SOURCE_EXTRACTED, DECOMPILED, UNCHANGED -> outputPathOf(item.dependency());
+            case SKIPPED, FAILED, CANCELLED, NOT_STARTED -> null;
+        };
+    }
+
+    /**
+     * Orders items by the scheduling policy and submits them to the pipeline.
+     */
+    private void submitAll(ExtractionPipeline pipeline, List<WorkItem> items) throws InterruptedException {
+        if (pipeline.isCancelled()) {
+            return;
+        }
+        for (WorkItem item : scheduler.order(items)) {
+            pipeline.submit(item);
+        }
+    }
+
+    /**
+     * Runs {@code mvn dependency:sources} in the background and submits each awaiting item
+     * as soon as Maven reports its source JAR. Items Maven never reports are submitted
+     * once the download finishes, and fall back to their binary JAR if needed.
+     */
+    private void submitAsDownloaded(ExtractionPipeline pipeline, Map<String, WorkItem> awaiting)
+        throws InterruptedException {
+        List<Dependency> missing = awaiting.values().stream().map(WorkItem::dependency).toList();
+        BlockingQueue<WorkItem> resolved = new LinkedBlockingQueue<>();
+
+        Thread download = Thread.ofPlatform().name("source-download").unstarted(() ->
+            parser.downloadSources(missing, dep -> {
+                WorkItem item = awaiting.remove(dep.key());
+                if (item != null) {
+                    resolved.add(item);
+                }
+            }));
+        downloadThread = download;
+        download.start();
+
+        // Submit from this thread so pipeline backpressure never stalls Maven's output reader
+        while (!pipeline.isCancelled() && (download.isAlive() || !resolved.isEmpty())) {
+            WorkItem item = resolved.poll(100, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                pipeline.submit(item);
+            }
+        }
+
+        submitAll(pipeline, new ArrayList<>(awaiting.values()));
+    }
+
+    /**
+     * Locate stage: finds the artifacts of a dependency and routes it to extraction or decompilation.
+     */
+    private Step locateArtifacts(WorkItem item) {
+        Dependency dep = item.dependency();
+        logger.info("[{}/{}] Processing: {}", item.position(), item.total(), dep.key());
+
+        if (!item.isLocated()) {
+            item.setLocation(locator.findArtifacts(dep));
+        }
+        ArtifactLocation location = item.location();
+
+        if (location.hasSource()) {
+            logger.info("  ✓ Found source JAR: {}", location.sourcePath().get().getFileName());
+            return unlessUpToDate(item, Step.extract());
+        } else if (location.hasBinary()) {
+            logger.info("  ⚠ Source JAR not found, using binary JAR");
+            if (decompiler != null && decompiler.isAvailable()) {
+                return unlessCached(item, unlessUpToDate(item, Step.decompile()));
             }
+            logger.info("  ⚠ Skipped (decompiler not configured)");
+            return Step.done(ExtractionOutcome.SKIPPED);
         } else {
             logger.info("  ✗ Artifact not found (binary and source JARs not available)");
-            return stats.incrementFailed();
+            return Step.done(ExtractionOutcome.FAILED);
+        }
+    }
+
+    /**
+     * In incremental mode, finishes an item as unchanged if its stored fingerprint
+     * still matches; otherwise drops the stale fingerprint and continues with the next step.
+     */
+    private Step unlessUpToDate(WorkItem item, Step next) {
+        if (fingerprints == null) {
+            return next;
+        }
+
+        Dependency dep = item.dependency();
+        boolean decompile = next instanceof Step.Decompile;
+        Path artifactDir = outputPathOf(dep);
+        try {
+            if (fingerprints.isUpToDate(dep, archiveOf(item, decompile), toolVersion(decompile),
+                    toolOptions(decompile), artifactDir)) {
+                logger.info("  ✓ Up to date: {}", artifactDir);
+                return Step.done(ExtractionOutcome.UNCHANGED);
+            }
+        } catch (IOException e) {
+            logger.debug("Cannot determine decompiler version", e);
+        }
+
+        fingerprints.invalidate(dep);
+        return next;
+    }
+
+    /**
+     * Finishes a binary-only item from the decompile cache if it holds the item's JAR, so it
+     * never queues for the decompile stage; otherwise continues with the next step.
+     */
+    private Step unlessCached(WorkItem item, Step next) {
+        if (decompileCache == null || !(next instanceof Step.Decompile)) {
+            return next;
+        }
+        boolean restored = withOutputLock(item, this::restoreDecompiled);
+        return restored ? Step.done(ExtractionOutcome.DECOMPILED) : next;
+    }
+
+    private boolean restoreDecompiled(WorkItem item) {
+        Path artifactDir = outputPathOf(item.dependency());
+        try {
+            String key = DecompileCache.key(archiveOf(item, true), toolVersion(true), toolOptions(true));
+            if (decompileCache.restore(key, artifactDir, options.bundleMode() != BundleMode.NONE,
+                    options.skipUnchanged())) {
+                logger.info("  ✓ Restored from decompile cache: {}", artifactDir);
+                return true;
+            }
+        } catch (IOException e) {
+            logger.debug("Cannot compute the decompile cache key of {}", item.dependency().key(), e);
+        }
+        return false;
+    }
+
+    /**
+     * Adds a freshly decompiled item's output to the decompile cache.
+     */
+    private void cacheDecompiled(WorkItem item) {
+        if (decompileCache == null) {
+            return;
+        }
+        try {
+            String key = DecompileCache.key(archiveOf(item, true), toolVersion(true), toolOptions(true));
+            decompileCache.store(key, outputPathOf(item.dependency()));
+        } catch (IOException e) {
+            logger.debug("Cannot compute the decompile cache key of {}", item.dependency().key(), e);
+        }
+    }
+
+    /**
+     * Stores the fingerprint of a freshly extracted or decompiled item.
+     */
+    private void recordFingerprint(WorkItem item, ExtractionOutcome outcome) {
+        if (fingerprints == null
+            || (outcome != ExtractionOutcome.SOURCE_EXTRACTED && outcome != ExtractionOutcome.DECOMPILED)) {
+            return;
+        }
+
+        boolean decompile = outcome == ExtractionOutcome.DECOMPILED;
+        try {
+            fingerprints.record(item.dependency(), archiveOf(item, decompile), toolVersion(decompile),
+                toolOptions(decompile), outputPathOf(item.dependency()));
+        } catch (IOException e) {
+            logger.warn("Failed to fingerprint {}", item.dependency().key(), e);
+        }
+    }
+
+    private static Path archiveOf(WorkItem item, boolean decompile) {
+        return decompile ? item.location().binaryPath().get() : item.location().sourcePath().get();
+    }
+
+    private String toolVersion(boolean decompile) throws IOException {
+        return decompile ? decompiler.version() : "-";
+    }
+
+    private String toolOptions(boolean decompile) {
+        return decompile ? String.join(" ", decompiler.options()) : options.entryFilter().toString();
+    }
+
+    /**
+     * Runs stage work while holding the lock of the item's output directory, which it may
+     * write from then on.
+     */
+    private <T> T withOutputLock(WorkItem item, Function<WorkItem, T> work) {
+        Path output = outputPathOf(item.dependency());
+        ReentrantLock lock = outputLocks.computeIfAbsent(output, dir -> new ReentrantLock());
+        lock.lock();
+        try {
+            writtenOutputs.add(output);
+            return work.apply(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Extract stage: unpacks the source JAR into the artifact directory.
+     */
+    private ExtractionOutcome extractSources(WorkItem item) {
+        Path sourcePath = item.location().sourcePath().get();
+        Path artifactDir = outputPathOf(item.dependency());
+
+        if (options.bundleMode() != BundleMode.NONE) {
+            return bundle(sourcePath, artifactDir, options.entryFilter())
+                ? ExtractionOutcome.SOURCE_EXTRACTED : ExtractionOutcome.FAILED;
+        }
+        if (Extractor.extractArchive(sourcePath, artifactDir, options.entryFilter(), options.skipUnchanged())) {
+            logger.info("  ✓ Source extracted to: {}", artifactDir);
+            return ExtractionOutcome.SOURCE_EXTRACTED;
         }
+        return ExtractionOutcome.FAILED;
+    }
+
+    /**
+     * Decompile stage: decompiles the binary JAR into the artifact directory.
+     */
+    private ExtractionOutcome decompileBinary(WorkItem item) {
+        return decompileBinary(item, planClasses(item));
+    }
+
+    /**
+     * Decompiles the binary JAR into the artifact directory, reusing the cached sources of the
+     * classes the plan found unchanged, if any.
+     */
+    private ExtractionOutcome decompileBinary(WorkItem item, ClassSourceCache.Plan plan) {
+        Path binaryPath = item.location().binaryPath().get();
+        logger.info("  → Decompiling: {}", binaryPath.getFileName());
+
+        Path tempDir = tempDirOf(item.dependency());
+
+        boolean decompiled = plan != null && plan.cachedGroups() > 0
+            ? decompileChangedClasses(item, plan, tempDir)
+            : decompiler.decompile(binaryPath, tempDir);
+        if (decompiled && plan != null) {
+            decompiled = unpackSourceJar(tempDir);
+            if (decompiled) {
+                classCache.store(plan, tempDir);
+            }
+        }
+        return decompiled ? completeDecompilation(item, tempDir) : ExtractionOutcome.FAILED;
+    }
+
+    /**
+     * Looks up the classes of an item's binary JAR in the class source cache.
+     *
+     * @return the plan, or null if there is no class source cache or the JAR cannot be read
+     */
+    private ClassSourceCache.Plan planClasses(WorkItem item) {
+        if (classCache == null) {
+            return null;
+        }
+        try {
+            return classCache.plan(archiveOf(item, true), toolVersion(true), toolOptions(true));
+        } catch (IOException e) {
+            logger.debug("Cannot look up the classes of {} in the class source cache", item.dependency().key(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Decompiles only the classes missing from the class source cache, with the whole JAR as
+     * a library so they resolve as they would in a full run, and restores the others. If a
+     * cached class cannot be restored, the whole JAR is decompiled after all.
+     */
+    private boolean decompileChangedClasses(WorkItem item, ClassSourceCache.Plan plan, Path tempDir) {
+        Path binaryPath = item.location().binaryPath().get();
+        logger.info("  → Reusing {} cached classes, decompiling {}", plan.cachedGroups(), plan.changedGroups());
+        if (plan.changedGroups() > 0) {
+            Path changedClasses = outputDir.resolve(item.dependency().artifactId() + "_changed.jar");
+            try {
+                classCache.writeChangedClasses(plan, changedClasses);
+                if (!decompiler.decompile(changedClasses, tempDir, List.of(binaryPath))) {
+                    return false;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to write the changed classes of {}", binaryPath, e);
+                return decompiler.decompile(binaryPath, tempDir);
+            } finally {
+                try {
+                    Files.deleteIfExists(changedClasses);
+                } catch (IOException e) {
+                    logger.debug("Failed to remove {}", changedClasses, e);
+                }
+            }
+        }
+        if (classCache.restore(plan, tempDir)) {
+            return true;
+        }
+
+        logger.info("  → Cached classes of {} are gone, decompiling all of them", binaryPath.getFileName());
+        try {
+            Extractor.deleteDirectory(tempDir);
+        } catch (IOException e) {
+            logger.warn("Failed to clear {}", tempDir, e);
+            return false;
+        }
+        return decompiler.decompile(binaryPath, tempDir);
+    }
+
+    /**
+     * Decompile stage for a batch: decompiles the binary JARs of several items with one decompiler
+     * run, then places each item's output under its output lock. An item that shares its output
+     * directory or JAR with an earlier one in the batch, or that has classes in the class source
+     * cache, is decompiled on its own afterwards.
+     */
+    private List<ExtractionOutcome> decompileBinaries(List<WorkItem> items) {
+        Path batchDir = outputDir.resolve(".decompile-batch-" + decompileBatches.incrementAndGet());
+        Map<Path, Path> tempDirs = new LinkedHashMap<>();
+        Map<Path, ClassSourceCache.Plan> plans = new HashMap<>();
+        Set<Path> outputs = new HashSet<>();
+        for (WorkItem item : items) {
+            Path binaryPath = item.location().binaryPath().get();
+            ClassSourceCache.Plan plan = plans.containsKey(binaryPath) ? plans.get(binaryPath) : planClasses(item);
+            plans.put(binaryPath, plan);
+            if (plan != null && plan.cachedGroups() > 0) {
+                continue;
+            }
+            if (outputs.add(outputPathOf(item.dependency())) && !tempDirs.containsKey(binaryPath)) {
+                tempDirs.put(binaryPath, batchDir.resolve(String.valueOf(tempDirs.size())));
+            }
+        }
+        logger.info("  → Decompiling {} artifacts in one batch: {}", tempDirs.size(),
+            tempDirs.keySet().stream().map(p -> p.getFileName().toString()).toList());
+
+        try {
+            Set<Path> decompiled = decompiler.decompileBatch(tempDirs, batchDir.resolve("merged"));
+            List<ExtractionOutcome> outcomes = new ArrayList<>();
+            for (WorkItem item : items) {
+                Path binaryPath = item.location().binaryPath().get();
+                Path tempDir = tempDirs.remove(binaryPath);
+                ClassSourceCache.Plan plan = plans.get(binaryPath);
+                if (tempDir == null) {
+                    outcomes.add(withOutputLock(item, alone -> decompileBinary(alone, plan)));
+                } else if (decompiled.contains(binaryPath) && (plan == null || unpackSourceJar(tempDir))) {
+                    if (plan != null) {
+                        classCache.store(plan, tempDir);
+                    }
+                    outcomes.add(withOutputLock(item, batched -> completeDecompilation(batched, tempDir)));
+                } else {
+                    outcomes.add(ExtractionOutcome.FAILED);
+                }
+            }
+            return outcomes;
+        } finally {
+            try {
+                Extractor.deleteDirectory(batchDir);
+            } catch (IOException e) {
+                logger.warn("Failed to remove batch directory: {}", batchDir, e);
+            }
+        }
+    }
+
+    /**
+     * Places an item's decompiler output and adds it to the decompile cache.
+     */
+    private ExtractionOutcome completeDecompilation(WorkItem item, Path tempDir) {
+        Path artifactDir = outputPathOf(item.dependency());
+        if (Files.exists(tempDir)) {
+            try {
+                if (placeDecompiled(tempDir, artifactDir)) {
+                    logger.info("  ✓ Decompilation completed: {}", artifactDir);
+                    cacheDecompiled(item);
+                    return ExtractionOutcome.DECOMPILED;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to organize decompiled output", e);
+            }
+        }
+        return ExtractionOutcome.FAILED;
+    }
+
+    /**
+     * Unpacks the jar of sources Fernflower writes for a jar input into the output directory
+     * itself, so the class source cache finds a file per class whichever decompiler wrote them,
+     * and sources restored from it are kept alongside.
+     *
+     * @return false if the source jar cannot be extracted
+     */
+    private static boolean unpackSourceJar(Path tempDir) {
+        try {
+            Optional<Path> sourceJar = sourceJarIn(tempDir);
+            if (sourceJar.isEmpty()) {
+                return true;
+            }
+            if (!Extractor.extractArchive(sourceJar.get(), tempDir, EntryFilter.ALL)) {
+                return false;
+            }
+            Files.delete(sourceJar.get());
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to unpack decompiled sources in {}", tempDir, e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the jar of sources Fernflower writes for a jar input, if the output is one.
+     */
+    private static Optional<Path> sourceJarIn(Path tempDir) throws IOException {
+        try (var stream = Files.list(tempDir)) {
+            return stream.filter(p -> p.getFileName().toString().endsWith(".jar") && Files.isRegularFile(p))
+                .findFirst();
+        }
+    }
+
+    /**
+     * Moves decompiler output to its final place without writing it twice. For a jar input,
+     * Fernflower writes a jar of sources, which is extracted (or bundled) once; any other
+     * output is renamed into place.
+     */
+    private boolean placeDecompiled(Path tempDir, Path artifactDir) throws IOException {
+        Optional<Path> sourceJar = sourceJarIn(tempDir);
+
+        if (options.bundleMode() != BundleMode.NONE) {
+            boolean bundled = bundleDecompiled(sourceJar, tempDir, artifactDir);
+            Extractor.deleteDirectory(tempDir);
+            return bundled;
+        }
+        if (sourceJar.isPresent()) {
+            if (!options.skipUnchanged()) {
+                Extractor.deleteDirectory(artifactDir);
+            }
+            boolean extracted = Extractor.extractArchive(sourceJar.get(), artifactDir, EntryFilter.ALL,
+                options.skipUnchanged());
+            Extractor.deleteDirectory(tempDir);
+            return extracted;
+        }
+        Extractor.moveDirectory(tempDir, artifactDir);
+        return true;
+    }
+
+    /**
+     * Where a dependency's output goes: a directory, or a bundle in the bundle modes.
+     */
+    private Path outputPathOf(Dependency dependency) {
+        return options.bundleMode() == BundleMode.NONE
+            ? outputDir.resolve(dependency.artifactId())
+            : outputDir.resolve(dependency.artifactId() + BUNDLE_SUFFIX);
+    }
+
+    private Path tempDirOf(Dependency dependency) {
+        return outputDir.resolve(dependency.artifactId() + "_temp");
+    }
+
+    /**
+     * Copies an archive's entries raw into an artifact bundle.
+     */
+    private static boolean bundle(Path archive, Path bundle, EntryFilter filter) {
+        try {
+            int entries = BundleWriter.write(archive, bundle, filter);
+            logger.info("  ✓ Bundled {} files into: {}", entries, bundle);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to bundle {}", archive, e);
+            return false;
+        }
+    }
+
+    /**
+     * Bundles decompiler output: a source jar is copied raw, anything else is bundled file by file.
+     */
+    private static boolean bundleDecompiled(Optional<Path> sourceJar, Path tempDir, Path bundle) {
+        if (sourceJar.isPresent()) {
+            return bundle(sourceJar.get(), bundle, EntryFilter.ALL);
+        }
+        try {
+            int entries = BundleWriter.writeDirectory(tempDir, bundle);
+            logger.info("  ✓ Bundled {} files into: {}", entries, bundle);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to bundle {}", tempDir, e);
+            return false;
+        }
+    }
+
+    /**
+     * Merges the artifact bundles in the output directory into {@code <output>.zip}.
+     * The artifact bundles are kept, as {@code --resume} and {@code --incremental} rely on them.
+     */
+    private void writeProjectBundle() throws IOException {
+        Map<String, Path> parts = new HashMap<>();
+        try (var stream = Files.newDirectoryStream(outputDir, "*" + BUNDLE_SUFFIX)) {
+            for (Path bundle : stream) {
+                String name = bundle.getFileName().toString();
+                parts.put(name.substring(0, name.length() - BUNDLE_SUFFIX.length()), bundle);
+            }
+        }
+
+        Path projectBundle = outputDir.resolveSibling(outputDir.getFileName() + BUNDLE_SUFFIX);
+        int entries = BundleWriter.merge(parts, projectBundle);
+        logger.info("Project bundle: {} ({} files from {} artifacts)", projectBundle, entries, parts.size());
     }
 
     /**
@@ -201,6 +951,34 @@ public class MavenDependencyExtractor {
         logger.info("Decompiled: {}", stats.decompiled());
         logger.info("Skipped: {}", stats.skipped());
         logger.info("Failed: {}", stats.failed());
+        logger.info("Unchanged: {}", stats.unchanged());
+        logger.info("Cancelled: {}", stats.cancelled());
+        logger.info("Not Started: {}", stats.notStarted());
+        var io = ExtractorMetrics.snapshot();
+        logger.info("Stored Entries: {} ({} bytes)", io.storedEntries(), io.storedBytes());
+        logger.info("Inflated Entries: {} ({} bytes)", io.inflatedEntries(), io.inflatedBytes());
+        logger.info("Channel-copied Files: {} ({} bytes)", io.channelCopiedFiles(), io.channelCopiedBytes());
+        logger.info("Filtered Entries: {}", io.filteredEntries());
+        logger.info("Unchanged Entries: {}", io.unchangedEntries());
+        logger.info("Buffer Pool: {} reused, {} allocated", io.poolReuses(), io.poolAllocations());
+        logger.info("Directories: {} created, {} redundant mkdir calls avoided",
+            io.directoriesCreated(), io.directoryHits());
+        for (var format : io.formats()) {
+            logger.info("Archives ({}): {} ({} bytes, {} MB/s)", format.format(), format.archives(), format.bytes(),
+                String.format("%.1f", format.megabytesPerSecond()));
+        }
+        if (decompileCache != null) {
+            var cache = decompileCache.stats();
+            logger.info("Decompile Cache: {} hits, {} misses, {} stored, {} evicted",
+                cache.hits(), cache.misses(), cache.stored(), cache.evicted());
+        }
+        if (classCache != null) {
+            var classes = classCache.stats();
+            logger.info("Class Source Cache: {} classes reused, {} stored", classes.reused(), classes.stored());
+        }
+        if (isDeadlineReached()) {
+            logger.warn("Deadline reached, results are partial");
+        }
         logger.info("Output Directory: {}", outputDir.toAbsolutePath());
         logger.info("============================================================");
     }
@@ -0,0 +1,144 @@
+package com.example.mavenextractor.bundle;
+
+import com.example.mavenextractor.extractor.MappedZipArchive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Lists and reads files of a bundle written by {@link BundleWriter} without unpacking it.
+ * <p>
+ * Lookups binary-search the memory-mapped central directory, which the writer keeps sorted
+ * by name. Reads are positional, so one reader can serve several threads.
+ */
+public final class BundleReader implements Closeable {
+
+    private final MappedZipArchive archive;
+    private final FileChannel channel;
+
+    private BundleReader(MappedZipArchive archive, FileChannel channel) {
+        this.archive = archive;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a bundle for reading.
+     */
+    public static BundleReader open(Path bundle) throws IOException {
+        var archive = MappedZipArchive.open(bundle);
+        return new BundleReader(archive, FileChannel.open(bundle, StandardOpenOption.READ));
+    }
+
+    /**
+     * @return the number of files in the bundle
+     */
+    public int size() {
+        return archive.size();
+    }
+
+    /**
+     * @return every file name, in sorted order
+     */
+    public List<String> list() {
+        return list("");
+    }
+
+    /**
+     * Lists the files whose names start with a prefix, e.g. {@code "guava/com/google/common/base/"}.
+     *
+     * @return matching names, in sorted order
+     */
+    public List<String> list(String prefix) {
+        var entry = archive.cursor();
+        List<String> names = new ArrayList<>();
+        for (int i = lowerBound(entry, prefix); i < archive.size(); i++) {
+            String name = entry.moveTo(i).name();
+            if (!name.startsWith(prefix)) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    public boolean contains(String name) {
+        return find(archive.cursor(), name) >= 0;
+    }
+
+    /**
+     * Opens a file of the bundle for reading.
+     *
+     * @throws NoSuchFileException if the bundle has no such file
+     */
+    public InputStream open(String name) throws IOException {
+        var entry = archive.cursor();
+        int index = find(entry, name);
+        if (index < 0) {
+            throw new NoSuchFileException(name, null, "not in bundle " + archive.path());
+        }
+        entry.moveTo(index);
+
+        var raw = new ChannelRangeInputStream(channel, entry.dataOffset(channel), entry.compressedSize());
+        return switch (entry.method()) {
+            case ZipEntry.STORED -> raw;
+            case ZipEntry.DEFLATED -> new InflaterInputStream(raw, new Inflater(true)) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    inf.end();
+                }
+            };
+            default -> throw new ZipException("Unsupported compression method " + entry.method() + ": " + name);
+        };
+    }
+
+    /**
+     * Reads a whole file of the bundle.
+     *
+     * @throws NoSuchFileException if the bundle has no such file
+     */
+    public byte[] readAllBytes(String name) throws IOException {
+        try (var in = open(name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private int find(MappedZipArchive.Cursor entry, String name) {
+        int index = lowerBound(entry, name);
+        return index < archive.size() && entry.moveTo(index).name().equals(name) ? index : -1;
+    }
+
+    /**
+     * Index of the first entry whose name is not less than the key.
+     */
+    private int lowerBound(MappedZipArchive.Cursor entry, String key) {
+        int low = 0;
+        int high = archive.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entry.moveTo(mid).name().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        archive.close();
+    }
+}
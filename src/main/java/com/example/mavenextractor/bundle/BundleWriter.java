@@ -0,0 +1,394 @@
+package com.example.mavenextractor.bundle;
+
+import com.example.mavenextractor.extractor.EntryFilter;
+import com.example.mavenextractor.extractor.Extractor;
+import com.example.mavenextractor.extractor.MappedZipArchive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes a bundle: a ZIP archive whose entries are sorted by name, so that its central
+ * directory doubles as a lookup table that {@link BundleReader} binary-searches.
+ * <p>
+ * Entries are copied raw from source archives: compressed bytes are transferred
+ * channel-to-channel and never inflated; only files added from a directory are compressed.
+ * Entries must be added in ascending name order across sources; {@link #merge} takes care
+ * of that for per-artifact bundles.
+ * The bundle is written to a temporary file and only moved into place by {@link #commit()}.
+ */
+public final class BundleWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel out;
+    private ByteBuffer header = newBuffer(1024);
+    private ByteBuffer directory = newBuffer(64 * 1024);
+    private long position;
+    private int entries;
+    private String lastName;
+    private boolean committed;
+
+    private BundleWriter(Path target) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.out = Extractor.openTarget(temp);
+    }
+
+    /**
+     * Starts a bundle that will replace {@code target} once committed.
+     */
+    public static BundleWriter create(Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        return new BundleWriter(target);
+    }
+
+    /**
+     * Bundles the entries of one archive that the filter accepts.
+     *
+     * @return the number of entries written
+     */
+    public static int write(Path archive, Path target, EntryFilter filter) throws IOException {
+        try (var source = MappedZipArchive.open(archive);
+             var writer = create(target)) {
+            int added = writer.add(source, "", filter);
+            writer.commit();
+            return added;
+        }
+    }
+
+    /**
+     * Bundles every file below a directory, e.g. decompiler output that is not a jar.
+     *
+     * @return the number of entries written
+     */
+    public static int writeDirectory(Path directory, Path target) throws IOException {
+        try (var writer = create(target)) {
+            int added = writer.addDirectory(directory, "");
+            writer.commit();
+            return added;
+        }
+    }
+
+    /**
+     * Combines bundles into one, placing each under its key as a top-level directory.
+     *
+     * @param parts bundles keyed by the directory name their entries get
+     * @return the number of entries written
+     */
+    public static int merge(Map<String, Path> parts, Path target) throws IOException {
+        // "a/" must come after "a-b/": order keys as the directory prefixes they become
+        List<String> keys = new ArrayList<>(parts.keySet());
+        keys.sort(Comparator.comparing(key -> key + "/"));
+
+        try (var writer = create(target)) {
+            int added = 0;
+            for (String key : keys) {
+                try (var source = MappedZipArchive.open(parts.get(key))) {
+                    added += writer.add(source, key + "/", EntryFilter.ALL);
+                }
+            }
+            writer.commit();
+            return added;
+        }
+    }
+
+    /**
+     * Appends the file entries of a source archive that the filter accepts, sorted by name.
+     * Directory entries are left out; they are implied by the file names.
+     *
+     * @param prefix prepended to every entry name, e.g. {@code "guava/"}
+     * @return the number of entries written
+     * @throws IllegalStateException if an entry sorts before one already written
+     */
+    public int add(MappedZipArchive source, String prefix, EntryFilter filter) throws IOException {
+        record Selected(String name, int index) {
+        }
+
+        List<Selected> selected = new ArrayList<>(source.size());
+        var entry = source.cursor();
+        while (entry.next()) {
+            if (!entry.isDirectory()) {
+                String name = entry.name();
+                if (filter.accepts(name)) {
+                    selected.add(new Selected(prefix + name, entry.index()));
+                }
+            }
+        }
+        selected.sort(Comparator.comparing(Selected::name));
+
+        int added = 0;
+        try (var channel = FileChannel.open(source.path(), StandardOpenOption.READ)) {
+            for (Selected s : selected) {
+                if (s.name().equals(lastName)) {
+                    continue; // duplicate names: the first one wins, as when extracting
+                }
+                if (lastName != null && s.name().compareTo(lastName) < 0) {
+                    throw new IllegalStateException("Bundle entries out of order: " + s.name() + " after " + lastName);
+                }
+                writeEntry(channel, entry.moveTo(s.index()), s.name());
+                lastName = s.name();
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Appends the files below a directory, sorted by relative path and DEFLATE-compressed.
+     *
+     * @return the number of entries written
+     */
+    public int addDirectory(Path directory, String prefix) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile)
+                 .forEach(file -> names.add(prefix + directory.relativize(file).toString().replace('\\', '/')));
+        }
+        names.sort(Comparator.naturalOrder());
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            for (String name : names) {
+                if (lastName != null && name.compareTo(lastName) <= 0) {
+                    throw new IllegalStateException("Bundle entries out of order: " + name + " after " + lastName);
+                }
+                Path file = directory.resolve(name.substring(prefix.length()));
+                writeDeflated(name, Files.readAllBytes(file), deflater, Files.getLastModifiedTime(file).toMillis());
+                lastName = name;
+            }
+        } finally {
+            deflater.end();
+        }
+        return names.size();
+    }
+
+    private void writeDeflated(String name, byte[] content, Deflater deflater, long lastModified) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+        var compressed = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(chunk, 0, deflater.deflate(chunk));
+        }
+
+        writeEntry(name, ZipEntry.DEFLATED, 0, dosTime(lastModified), crc.getValue(), content.length,
+            compressed.size(), out -> write(ByteBuffer.wrap(compressed.toByteArray())));
+    }
+
+    /**
+     * Converts epoch milliseconds into MS-DOS date (high 16 bits) and time (low 16 bits).
+     */
+    private static int dosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (time.getYear() - 1980) << 25
+            | time.getMonthValue() << 21
+            | time.getDayOfMonth() << 16
+            | time.getHour() << 11
+            | time.getMinute() << 5
+            | time.getSecond() >> 1;
+    }
+
+    private void writeEntry(FileChannel source, MappedZipArchive.Cursor entry, String name) throws IOException {
+        long dataOffset = entry.dataOffset(source);
+        long compressedSize = entry.compressedSize();
+        writeEntry(name, entry.method(), entry.flags(), entry.dosTime(), entry.crc(), entry.size(), compressedSize,
+            out -> Extractor.transferFully(source, dataOffset, compressedSize, out));
+    }
+
+    /**
+     * Writes the entry's data, given its local header has just been written.
+     */
+    @FunctionalInterface
+    private interface DataWriter {
+        void write(FileChannel out) throws IOException;
+    }
+
+    private void writeEntry(
+        String name,
+        int method,
+        int sourceFlags,
+        int dosTime,
+        long crc,
+        long size,
+        long compressedSize,
+        DataWriter data
+    ) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        long offset = position;
+        int flags = (sourceFlags & ~FLAG_DATA_DESCRIPTOR) | FLAG_UTF8;
+
+        boolean zip64Sizes = compressedSize >= ZIP64_MAGIC || size >= ZIP64_MAGIC;
+        header = ensureCapacity(header, 30 + nameBytes.length + 20);
+        header.clear();
+        header.putInt(LOCAL_HEADER_SIGNATURE)
+              .putShort((short) (zip64Sizes ? VERSION_ZIP64 : VERSION))
+              .putShort((short) flags)
+              .putShort((short) method)
+              .putInt(dosTime)
+              .putInt((int) crc)
+              .putInt(zip64Sizes ? (int) ZIP64_MAGIC : (int) compressedSize)
+              .putInt(zip64Sizes ? (int) ZIP64_MAGIC : (int) size)
+              .putShort((short) nameBytes.length)
+              .putShort((short) (zip64Sizes ? 20 : 0))
+              .put(nameBytes);
+        if (zip64Sizes) {
+            header.putShort((short) ZIP64_EXTRA_ID).putShort((short) 16).putLong(size).putLong(compressedSize);
+        }
+        write(header.flip());
+        long dataStart = position;
+        data.write(out);
+        position = dataStart + compressedSize;
+
+        // Central directory record: the ZIP64 extra holds only the fields that overflow
+        boolean bigSize = size >= ZIP64_MAGIC;
+        boolean bigCompressed = compressedSize >= ZIP64_MAGIC;
+        boolean bigOffset = offset >= ZIP64_MAGIC;
+        int extraData = (bigSize ? 8 : 0) + (bigCompressed ? 8 : 0) + (bigOffset ? 8 : 0);
+        int extraLength = extraData > 0 ? 4 + extraData : 0;
+
+        directory = ensureCapacity(directory, directory.position() + 46 + nameBytes.length + extraLength);
+        directory.putInt(CENTRAL_HEADER_SIGNATURE)
+                 .putShort((short) VERSION_ZIP64)
+                 .putShort((short) (extraLength > 0 || zip64Sizes ? VERSION_ZIP64 : VERSION))
+                 .putShort((short) flags)
+                 .putShort((short) method)
+                 .putInt(dosTime)
+                 .putInt((int) crc)
+                 .putInt(bigCompressed ? (int) ZIP64_MAGIC : (int) compressedSize)
+                 .putInt(bigSize ? (int) ZIP64_MAGIC : (int) size)
+                 .putShort((short) nameBytes.length)
+                 .putShort((short) extraLength)
+                 .putShort((short) 0)
+                 .putShort((short) 0)
+                 .putShort((short) 0)
+                 .putInt(0)
+                 .putInt(bigOffset ? (int) ZIP64_MAGIC : (int) offset)
+                 .put(nameBytes);
+        if (extraLength > 0) {
+            directory.putShort((short) ZIP64_EXTRA_ID).putShort((short) extraData);
+            if (bigSize) {
+                directory.putLong(size);
+            }
+            if (bigCompressed) {
+                directory.putLong(compressedSize);
+            }
+            if (bigOffset) {
+                directory.putLong(offset);
+            }
+        }
+        entries++;
+    }
+
+    /**
+     * Writes the central directory and moves the bundle into place.
+     */
+    public void commit() throws IOException {
+        long directoryOffset = position;
+        long directorySize = directory.position();
+        write(directory.flip());
+
+        boolean zip64 = entries > MAX_ENTRIES || directoryOffset >= ZIP64_MAGIC || directorySize >= ZIP64_MAGIC;
+        ByteBuffer end = newBuffer(56 + 20 + 22);
+        if (zip64) {
+            long zip64Offset = position;
+            end.putInt(ZIP64_EOCD_SIGNATURE)
+               .putLong(44)
+               .putShort((short) VERSION_ZIP64)
+               .putShort((short) VERSION_ZIP64)
+               .putInt(0)
+               .putInt(0)
+               .putLong(entries)
+               .putLong(entries)
+               .putLong(directorySize)
+               .putLong(directoryOffset);
+            end.putInt(ZIP64_LOCATOR_SIGNATURE)
+               .putInt(0)
+               .putLong(zip64Offset)
+               .putInt(1);
+        }
+        end.putInt(EOCD_SIGNATURE)
+           .putShort((short) 0)
+           .putShort((short) 0)
+           .putShort((short) (zip64 ? MAX_ENTRIES : entries))
+           .putShort((short) (zip64 ? MAX_ENTRIES : entries))
+           .putInt(zip64 ? (int) ZIP64_MAGIC : (int) directorySize)
+           .putInt(zip64 ? (int) ZIP64_MAGIC : (int) directoryOffset)
+           .putShort((short) 0);
+        write(end.flip());
+
+        out.force(false);
+        out.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer);
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+        if (buffer.capacity() >= capacity) {
+            return buffer;
+        }
+        ByteBuffer larger = newBuffer(Math.max(capacity, buffer.capacity() * 2));
+        return larger.put(buffer.flip());
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Discards the temporary file unless the bundle was committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.mavenextractor.cache;
+
+import com.example.mavenextractor.extractor.EntryFilter;
+import com.example.mavenextractor.extractor.Extractor;
+import com.example.mavenextractor.util.ClassNames;
+import com.example.mavenextractor.util.FileHashes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Persistent cache of decompiled sources per class, shared by all versions of an artifact.
+ * <p>
+ * Between two patch releases of a library, most class files are byte-identical, yet the
+ * artifact-level {@link DecompileCache} misses because the JAR changed. This cache works one
+ * level down: the class entries of a JAR are grouped by outer class, an inner class going with
+ * the class whose source file holds it, and each group is keyed by the SHA-256 of its entries
+ * together with the decompiler version and options. Only the groups without an entry are handed
+ * to the decompiler, in a reduced JAR; the sources of the other groups are restored from here.
+ * <p>
+ * The key covers only a group's own bytes, yet the decompiler reads the rest of the JAR to
+ * resolve the classes a group refers to, for example when it picks imports or infers types.
+ * A reused source is therefore the one an earlier version of the JAR produced, and can differ
+ * from a fresh run in such details when the classes around it changed. An entry is a small ZIP
+ * of the source files its group produced; a decompiler that writes a jar of sources has it
+ * unpacked first. The cache lives in a subdirectory of a {@link DecompileCache} and
+ * has no cap of its own: its entries count toward the decompile cache's, which evicts the least
+ * recently used of both.
+ */
+public class ClassSourceCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassSourceCache.class);
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String ENTRY_SUFFIX = ".zip";
+
+    /** Everything but class files: what the decompiler would copy through unchanged. */
+    private static final EntryFilter RESOURCES = EntryFilter.of(List.of(), List.of("**/*" + CLASS_SUFFIX));
+
+    /**
+     * Cache statistics of this run: class groups restored and stored.
+     */
+    public record Stats(int reused, int stored) {
+    }
+
+    /**
+     * The class groups of a JAR, their keys, and which of them the cache holds.
+     */
+    public static final class Plan {
+        private final Path jar;
+        private final Map<String, List<String>> classesByGroup;
+        private final Map<String, String> keys;
+        private final Set<String> cached;
+
+        private Plan(Path jar, Map<String, List<String>> classesByGroup, Map<String, String> keys, Set<String> cached) {
+            this.jar = jar;
+            this.classesByGroup = classesByGroup;
+            this.keys = keys;
+            this.cached = cached;
+        }
+
+        /**
+         * Returns the number of class groups the cache holds.
+         */
+        public int cachedGroups() {
+            return cached.size();
+        }
+
+        /**
+         * Returns the number of class groups that must be decompiled.
+         */
+        public int changedGroups() {
+            return classesByGroup.size() - cached.size();
+        }
+    }
+
+    private final Path cacheDir;
+
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger stored = new AtomicInteger();
+
+    /**
+     * @param cacheDir the directory holding the entries, a subdirectory of a {@link DecompileCache}
+     */
+    public ClassSourceCache(Path cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Groups the classes of a JAR, keys each group and looks the keys up.
+     *
+     * @throws IOException if the JAR cannot be read
+     */
+    public Plan plan(Path jar, String toolVersion, String options) throws IOException {
+        Map<String, List<String>> classesByGroup = new TreeMap<>();
+        Map<String, String> keys = new TreeMap<>();
+        Set<String> cached = new HashSet<>();
+        try (var zip = new ZipFile(jar.toFile())) {
+            Set<String> classes = new HashSet<>();
+            zip.stream()
+                .map(ZipEntry::getName)
+                .filter(name -> name.endsWith(CLASS_SUFFIX))
+                .forEach(name -> classes.add(name.substring(0, name.length() - CLASS_SUFFIX.length())));
+            for (String name : classes) {
+                classesByGroup.computeIfAbsent(ClassNames.outerClassOf(name, classes), group -> new ArrayList<>())
+                    .add(name + CLASS_SUFFIX);
+            }
+
+            for (var group : classesByGroup.entrySet()) {
+                Collections.sort(group.getValue());
+                String key = key(zip, group.getValue(), toolVersion, options);
+                keys.put(group.getKey(), key);
+                if (Files.exists(entryFor(key))) {
+                    cached.add(group.getKey());
+                }
+            }
+        }
+        return new Plan(jar, classesByGroup, keys, cached);
+    }
+
+    private static String key(ZipFile zip, List<String> entries, String toolVersion, String options)
+            throws IOException {
+        MessageDigest digest = FileHashes.newSha256();
+        digest.update(toolVersion.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(options.getBytes(StandardCharsets.UTF_8));
+        for (String name : entries) {
+            digest.update((byte) '\n');
+            digest.update(name.getBytes(StandardCharsets.UTF_8));
+            try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+                byte[] bytes = in.readAllBytes();
+                // The length keeps one entry's bytes from passing for the start of the next name
+                digest.update(ByteBuffer.allocate(Long.BYTES).putLong(bytes.length).array());
+                digest.update(bytes, 0, bytes.length);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Writes a JAR holding only the classes of the groups the cache does not hold.
+     */
+    public void writeChangedClasses(Plan plan, Path target) throws IOException {
+        try (var zip = new ZipFile(plan.jar.toFile());
+             var out = new ZipOutputStream(Files.newOutputStream(target))) {
+            for (var group : plan.classesByGroup.entrySet()) {
+                if (plan.cached.contains(group.getKey())) {
+                    continue;
+                }
+                for (String name : group.getValue()) {
+                    out.putNextEntry(new ZipEntry(name));
+                    try (InputStream in = zip.getInputStream(zip.getEntry(name))) {
+                        in.transferTo(out);
+                    }
+                    out.closeEntry();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the sources of the cached groups, and the JAR's resources, into a directory.
+     *
+     * @return false if an entry has gone missing since the plan was made; the caller then
+     *         decompiles the whole JAR
+     */
+    public boolean restore(Plan plan, Path outputDir) {
+        try {
+            for (String group : plan.cached) {
+                Path entry = entryFor(plan.keys.get(group));
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+                extractEntry(entry, outputDir);
+            }
+        } catch (IOException e) {
+            logger.debug("Cannot restore cached classes of {}", plan.jar, e);
+            return false;
+        }
+        if (!Extractor.extractArchive(plan.jar, outputDir, RESOURCES)) {
+            return false;
+        }
+        reused.addAndGet(plan.cached.size());
+        return true;
+    }
+
+    private static void extractEntry(Path entry, Path outputDir) throws IOException {
+        Path root = outputDir.toAbsolutePath().normalize();
+        try (var zip = new ZipFile(entry.toFile())) {
+            for (ZipEntry source : Collections.list(zip.entries())) {
+                Path target = root.resolve(source.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Entry is outside of the target directory: " + source.getName());
+                }
+                Files.createDirectories(target.getParent());
+                try (InputStream in = zip.getInputStream(source)) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the sources the decompiler wrote for the groups the cache did not hold. A group
+     * is stored under the source files of its classes that exist in the output; a group without
+     * any (such as a JAR decompiled into a source jar) is not stored. Failures are logged; the
+     * cache is only an optimisation.
+     */
+    public void store(Plan plan, Path outputDir) {
+        for (var group : plan.classesByGroup.entrySet()) {
+            if (plan.cached.contains(group.getKey())) {
+                continue;
+            }
+            List<String> sources = new ArrayList<>();
+            for (String name : group.getValue()) {
+                String source = name.substring(0, name.length() - CLASS_SUFFIX.length()) + ".java";
+                if (Files.isRegularFile(outputDir.resolve(source))) {
+                    sources.add(source);
+                }
+            }
+            if (sources.isEmpty()) {
+                continue;
+            }
+
+            String key = plan.keys.get(group.getKey());
+            Path entry = entryFor(key);
+            try {
+                Files.createDirectories(entry.getParent());
+                Path temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+                try {
+                    try (OutputStream file = Files.newOutputStream(temp);
+                         var out = new ZipOutputStream(file)) {
+                        for (String source : sources) {
+                            out.putNextEntry(new ZipEntry(source));
+                            Files.copy(outputDir.resolve(source), out);
+                            out.closeEntry();
+                        }
+                    }
+                    Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    stored.incrementAndGet();
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to cache the source of {}", group.getKey(), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of this run.
+     */
+    public Stats stats() {
+        return new Stats(reused.get(), stored.get());
+    }
+
+    private Path entryFor(String key) {
+        // Fan out over subdirectories so no single directory grows huge
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.mavenextractor.cache;
+
+import com.example.mavenextractor.bundle.BundleWriter;
+import com.example.mavenextractor.extractor.EntryFilter;
+import com.example.mavenextractor.extractor.Extractor;
+import com.example.mavenextractor.util.FileHashes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of decompiled artifacts, shared by all projects on a machine.
+ * <p>
+ * An entry is keyed by the SHA-256 of the binary JAR together with the decompiler version and
+ * options, so the same JAR is decompiled once no matter which project or coordinates it comes
+ * with. Entries are deflated ZIP files. Restoring one is a plain extraction (or, for bundle
+ * output, a file copy), which takes milliseconds rather than the seconds a decompiler run does.
+ * <p>
+ * The cache is capped in size. A hit refreshes the entry's modification time, and when a new
+ * entry pushes the cache over its cap, the entries used least recently are evicted. The cap
+ * covers the whole cache directory, including the {@link ClassSourceCache} kept in one of its
+ * subdirectories, so both caches are evicted together in one pass. Entries are written to a
+ * temporary file and renamed into place, so concurrent runs never see partial ones.
+ */
+public class DecompileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecompileCache.class);
+
+    private static final String ENTRY_SUFFIX = ".zip";
+
+    /** Entries are at depth 2, those of a {@link ClassSourceCache} in a subdirectory at depth 3. */
+    private static final int ENTRY_DEPTH = 3;
+
+    /**
+     * Cache statistics of this run.
+     */
+    public record Stats(int hits, int misses, int stored, int evicted) {
+    }
+
+    private final Path cacheDir;
+    private final long maxBytes;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger stored = new AtomicInteger();
+    private final AtomicInteger evicted = new AtomicInteger();
+
+    /**
+     * @param cacheDir the directory holding the entries
+     * @param maxBytes total size of the entries, including those of a {@link ClassSourceCache} in a
+     *                 subdirectory, above which the least recently used are evicted
+     */
+    public DecompileCache(Path cacheDir, long maxBytes) {
+        this.cacheDir = cacheDir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Computes the cache key of a binary JAR decompiled by a given decompiler version with given options.
+     */
+    public static String key(Path jar, String toolVersion, String options) throws IOException {
+        MessageDigest digest = FileHashes.newSha256();
+        digest.update(FileHashes.sha256(jar).getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) '\n');
+        digest.update(toolVersion.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(options.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Restores a cached result into a directory, or as a bundle file.
+     *
+     * @param key the cache key
+     * @param target the directory to extract into, or the bundle to write
+     * @param bundle if true, the target is a bundle file rather than a directory
+     * @param skipUnchanged if true, files that already match are left untouched and the
+     *                      directory is not cleared first
+     * @return true if the entry was found and restored
+     */
+    public boolean restore(String key, Path target, boolean bundle, boolean skipUnchanged) {
+        Path entry = entryFor(key);
+        try {
+            // Refresh first: this both marks the entry as recently used and tells if it exists
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        try {
+            boolean restored;
+            if (bundle) {
+                Files.createDirectories(target.toAbsolutePath().getParent());
+                Files.copy(entry, target, StandardCopyOption.REPLACE_EXISTING);
+                restored = true;
+            } else {
+                if (!skipUnchanged) {
+                    Extractor.deleteDirectory(target);
+                }
+                restored = Extractor.extractArchive(entry, target, EntryFilter.ALL, skipUnchanged);
+            }
+            if (restored) {
+                hits.incrementAndGet();
+                return true;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to restore cached decompilation {}", entry, e);
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Stores a decompiled directory, or bundle, under a key, then evicts old entries if the
+     * cache has grown past its cap. Failures are logged; the cache is only an optimisation.
+     */
+    public void store(String key, Path output) {
+        Path entry = entryFor(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temp = Files.createTempFile(entry.getParent(), key, ".tmp");
+            try {
+                if (Files.isRegularFile(output)) {
+                    Files.copy(output, temp, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    BundleWriter.writeDirectory(output, temp);
+                }
+                if (Files.size(temp) > maxBytes) {
+                    logger.debug("Not caching {}: larger than the whole cache", output);
+                    return;
+                }
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                stored.incrementAndGet();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to cache decompiled output of {}", output, e);
+            return;
+        }
+        trim();
+    }
+
+    /**
+     * Deletes the least recently used entries, of this cache and of a {@link ClassSourceCache}
+     * below it alike, until the cache fits its cap.
+     */
+    public synchronized void trim() {
+        record Entry(Path path, long size, FileTime lastUsed) {
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(cacheDir, ENTRY_DEPTH)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    continue;
+                }
+                try {
+                    var entry = new Entry(file, Files.size(file), Files.getLastModifiedTime(file));
+                    entries.add(entry);
+                    total += entry.size();
+                } catch (NoSuchFileException e) {
+                    // Evicted by a concurrent run
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to scan the decompile cache: {}", cacheDir, e);
+            return;
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.path());
+                total -= entry.size();
+                evicted.incrementAndGet();
+                logger.debug("Evicted cached entry {}", entry.path().getFileName());
+            } catch (IOException e) {
+                logger.warn("Failed to evict {}", entry.path(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of this run.
+     */
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), stored.get(), evicted.get());
+    }
+
+    private Path entryFor(String key) {
+        // Fan out over subdirectories so no single directory grows huge
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.mavenextractor.cache;
+
+import java.nio.file.Path;
+
+/**
+ * Everything that determines the output of one dependency.
+ * Uses JDK 21 record for immutable data carrier.
+ *
+ * @param coordinates the dependency key (groupId:artifactId:version)
+ * @param archive the source or binary JAR the output was produced from
+ * @param archiveSize size of the archive in bytes
+ * @param archiveModified last-modified time of the archive in milliseconds
+ * @param archiveSha256 SHA-256 of the archive contents
+ * @param toolVersion version of the tool that produced the output (decompiler hash, or "-" for extraction)
+ * @param options options the output was produced with
+ * @param outputDir the directory the output was written to
+ */
+public record Fingerprint(
+    String coordinates,
+    Path archive,
+    long archiveSize,
+    long archiveModified,
+    String archiveSha256,
+    String toolVersion,
+    String options,
+    Path outputDir
+) {
+    /**
+     * Returns a copy with a new archive modification time.
+     */
+    public Fingerprint withArchiveModified(long modified) {
+        return new Fingerprint(coordinates, archive, archiveSize, modified, archiveSha256,
+            toolVersion, options, outputDir);
+    }
+}
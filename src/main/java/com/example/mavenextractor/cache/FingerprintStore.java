@@ -0,0 +1,177 @@
+package com.example.mavenextractor.cache;
+
+import com.example.mavenextractor.model.Dependency;
+import com.example.mavenextractor.util.FileHashes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Stores one {@link Fingerprint} per dependency so unchanged dependencies can be
+ * skipped on the next run.
+ * <p>
+ * An output is considered up to date when the archive, tool version, options and
+ * output directory all match the stored fingerprint. The archive is compared by
+ * size and modification time first; its SHA-256 is only computed when the
+ * modification time changed, so a touched-but-identical JAR is still recognised.
+ */
+public class FingerprintStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FingerprintStore.class);
+
+    private final Path storeDir;
+
+    /**
+     * @param cacheDir the cache directory (typically {@code <project>/.maven_deps_cache})
+     */
+    public FingerprintStore(Path cacheDir) {
+        this.storeDir = cacheDir.resolve("fingerprints");
+    }
+
+    /**
+     * Returns true if the output of a dependency was produced from the same archive
+     * with the same tool version and options, and is still present.
+     */
+    public boolean isUpToDate(Dependency dependency, Path archive, String toolVersion, String options,
+                              Path outputDir) {
+        Optional<Fingerprint> stored = load(dependency);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        Fingerprint fingerprint = stored.get();
+
+        if (!fingerprint.archive().equals(archive.toAbsolutePath())
+            || !fingerprint.toolVersion().equals(toolVersion)
+            || !fingerprint.options().equals(options)
+            || !fingerprint.outputDir().equals(outputDir.toAbsolutePath())
+            || !isPresent(outputDir)) {
+            return false;
+        }
+
+        try {
+            if (Files.size(archive) != fingerprint.archiveSize()) {
+                return false;
+            }
+            long modified = Files.getLastModifiedTime(archive).toMillis();
+            if (modified == fingerprint.archiveModified()) {
+                return true;
+            }
+            if (FileHashes.sha256(archive).equals(fingerprint.archiveSha256())) {
+                save(dependency, fingerprint.withArchiveModified(modified));
+                return true;
+            }
+            return false;
+        } catch (IOException e) {
+            logger.debug("Cannot compare fingerprint of {}", dependency.key(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Computes and stores the fingerprint of a freshly produced output.
+     */
+    public void record(Dependency dependency, Path archive, String toolVersion, String options, Path outputDir) {
+        try {
+            save(dependency, new Fingerprint(
+                dependency.key(),
+                archive.toAbsolutePath(),
+                Files.size(archive),
+                Files.getLastModifiedTime(archive).toMillis(),
+                FileHashes.sha256(archive),
+                toolVersion,
+                options,
+                outputDir.toAbsolutePath()
+            ));
+        } catch (IOException e) {
+            logger.warn("Failed to record fingerprint for {}", dependency.key(), e);
+        }
+    }
+
+    /**
+     * Removes the fingerprint of a dependency, e.g. before its output is rewritten.
+     */
+    public void invalidate(Dependency dependency) {
+        try {
+            Files.deleteIfExists(fileFor(dependency));
+        } catch (IOException e) {
+            logger.warn("Failed to invalidate fingerprint for {}", dependency.key(), e);
+        }
+    }
+
+    private Optional<Fingerprint> load(Dependency dependency) {
+        Path file = fileFor(dependency);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            props.load(reader);
+            return Optional.of(new Fingerprint(
+                props.getProperty("coordinates"),
+                Paths.get(props.getProperty("archive")),
+                Long.parseLong(props.getProperty("archive.size")),
+                Long.parseLong(props.getProperty("archive.modified")),
+                props.getProperty("archive.sha256"),
+                props.getProperty("tool.version"),
+                props.getProperty("options"),
+                Paths.get(props.getProperty("output"))
+            ));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Ignoring unreadable fingerprint: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private void save(Dependency dependency, Fingerprint fingerprint) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("coordinates", fingerprint.coordinates());
+        props.setProperty("archive", fingerprint.archive().toString());
+        props.setProperty("archive.size", Long.toString(fingerprint.archiveSize()));
+        props.setProperty("archive.modified", Long.toString(fingerprint.archiveModified()));
+        props.setProperty("archive.sha256", fingerprint.archiveSha256());
+        props.setProperty("tool.version", fingerprint.toolVersion());
+        props.setProperty("options", fingerprint.options());
+        props.setProperty("output", fingerprint.outputDir().toString());
+
+        // Write to a temporary file and rename, so a crash never leaves a half-written fingerprint
+        Path file = fileFor(dependency);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            props.store(writer, null);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path fileFor(Dependency dependency) {
+        return storeDir.resolve(dependency.groupId())
+                       .resolve(dependency.artifactId() + "-" + dependency.version() + ".properties");
+    }
+
+    /**
+     * An output is present as a non-empty directory or, in bundle mode, a bundle file.
+     */
+    private static boolean isPresent(Path dir) {
+        if (Files.isRegularFile(dir)) {
+            return true;
+        }
+        if (!Files.isDirectory(dir)) {
+            return false;
+        }
+        try (var stream = Files.list(dir)) {
+            return stream.findAny().isPresent();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.mavenextractor.config;
+
+/**
+ * How extracted sources are laid out in the output directory.
+ */
+public enum BundleMode {
+    /** One directory of loose files per artifact. */
+    NONE,
+
+    /** One bundle ({@code <artifactId>.zip}) per artifact. */
+    ARTIFACT,
+
+    /** Per-artifact bundles, merged into one {@code <output>.zip} for the whole project. */
+    PROJECT
+}
@@ -27,10 +27,25 @@ public class Config {
     );
 
     /**
-     * Local cache directory for temporary files.
+     * Local cache directory, relative to the project directory.
+     * Holds per-dependency fingerprints for incremental runs.
      */
     public static final Path CACHE_DIR = Paths.get(".maven_deps_cache");
 
+    /**
+     * Decompile cache directory, shared by all projects of the user
+     * (can be configured via DECOMPILE_CACHE_DIR environment variable).
+     */
+    public static final Path DECOMPILE_CACHE_DIR = Paths.get(
+        System.getenv().getOrDefault("DECOMPILE_CACHE_DIR",
+            Paths.get(System.getProperty("user.home"), ".maven_deps_cache", "decompiled").toString())
+    );
+
+    /**
+     * Size cap of the decompile cache when it is turned on without a size.
+     */
+    public static final long DEFAULT_DECOMPILE_CACHE_BYTES = 2L * 1024 * 1024 * 1024;
+
     /**
      * Default decompiler jar file name.
      */
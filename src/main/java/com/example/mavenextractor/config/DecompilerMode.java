@@ -0,0 +1,15 @@
+package com.example.mavenextractor.config;
+
+/**
+ * How the decompiler is run for binary-only artifacts.
+ */
+public enum DecompilerMode {
+    /** A new {@code java -jar} process per artifact. */
+    PROCESS,
+
+    /** Inside this JVM, from an isolated class loader that stays loaded for the whole run. */
+    IN_PROCESS,
+
+    /** In a pool of long-lived worker processes, each taking one artifact at a time. */
+    WORKERS
+}
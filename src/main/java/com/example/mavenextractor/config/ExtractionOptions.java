@@ -0,0 +1,87 @@
+package com.example.mavenextractor.config;
+
+import com.example.mavenextractor.extractor.EntryFilter;
+import com.example.mavenextractor.scheduler.SchedulingPolicy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Tuning options for an extraction run.
+ * Uses JDK 21 record for immutable data carrier.
+ *
+ * @param threads number of extract stage workers (and locate stage workers in platform mode)
+ * @param virtualThreads if true, pipeline stages run their workers on virtual threads
+ * @param ioConcurrency number of locate stage workers in virtual-thread mode
+ * @param decompileConcurrency maximum number of concurrent decompiler processes
+ * @param decompileBatchSize maximum number of binary JARs decompiled by one decompiler process
+ * @param queueCapacity number of items each pipeline stage may queue before blocking upstream
+ * @param schedulingPolicy order in which dependencies enter the pipeline
+ * @param resume if true, skip dependencies the run journal records as completed
+ * @param incremental if true, skip dependencies whose fingerprint shows their output is up to date
+ * @param deadline time budget for the whole run, after which outstanding work is cancelled
+ * @param entryFilter selects which archive entries are extracted
+ * @param bundleMode whether output is written as loose files or as bundles
+ * @param skipUnchanged if true, files that already match their archive entry are not rewritten
+ *                      and written files keep the entry's modification time
+ * @param decompilerMode how the decompiler is run
+ * @param decompilerWorkers number of decompiler worker processes in {@link DecompilerMode#WORKERS} mode
+ * @param decompileCacheDir directory of the persistent decompile cache, empty to disable it
+ * @param decompileCacheBytes size cap of the decompile cache
+ */
+public record ExtractionOptions(
+    int threads,
+    boolean virtualThreads,
+    int ioConcurrency,
+    int decompileConcurrency,
+    int decompileBatchSize,
+    int queueCapacity,
+    SchedulingPolicy schedulingPolicy,
+    boolean resume,
+    boolean incremental,
+    Optional<Duration> deadline,
+    EntryFilter entryFilter,
+    BundleMode bundleMode,
+    boolean skipUnchanged,
+    DecompilerMode decompilerMode,
+    int decompilerWorkers,
+    Optional<Path> decompileCacheDir,
+    long decompileCacheBytes
+) {
+    public ExtractionOptions {
+        requirePositive("threads", threads);
+        requirePositive("ioConcurrency", ioConcurrency);
+        requirePositive("decompileConcurrency", decompileConcurrency);
+        requirePositive("decompileBatchSize", decompileBatchSize);
+        requirePositive("queueCapacity", queueCapacity);
+        requirePositive("decompilerWorkers", decompilerWorkers);
+        Objects.requireNonNull(schedulingPolicy, "schedulingPolicy");
+        Objects.requireNonNull(deadline, "deadline");
+        Objects.requireNonNull(entryFilter, "entryFilter");
+        Objects.requireNonNull(bundleMode, "bundleMode");
+        Objects.requireNonNull(decompilerMode, "decompilerMode");
+        Objects.requireNonNull(decompileCacheDir, "decompileCacheDir");
+        if (decompileCacheDir.isPresent() && decompileCacheBytes < 1) {
+            throw new IllegalArgumentException("decompileCacheBytes must be at least 1: " + decompileCacheBytes);
+        }
+    }
+
+    /**
+     * Creates options sized for the current machine, using platform threads.
+     */
+    public static ExtractionOptions defaults() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int decompileConcurrency = Math.max(1, processors / 2);
+        return new ExtractionOptions(processors, false, 1024, decompileConcurrency, 1, 256,
+            SchedulingPolicy.TREE_ORDER, false, false, Optional.empty(), EntryFilter.ALL,
+            BundleMode.NONE, false, DecompilerMode.PROCESS, decompileConcurrency, Optional.empty(), 0);
+    }
+
+    private static void requirePositive(String name, int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1: " + value);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.mavenextractor.decompiler;
+
+import com.example.mavenextractor.extractor.EntryFilter;
+import com.example.mavenextractor.extractor.Extractor;
+import com.example.mavenextractor.extractor.MappedZipArchive;
+import com.example.mavenextractor.util.ClassNames;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JARs decompiled together by one decompiler process, and the split of its output back into
+ * one directory per JAR.
+ * <p>
+ * Given several inputs, the decompiler writes one merged source tree (or, like the original
+ * Fernflower, one source jar per input named after it). Every class entry of a JAR is mapped to
+ * the source files the decompiler may write for it: that of its outer class, which holds inner
+ * classes, and, for an inner class the decompiler cannot nest, its own. Files that were not
+ * written are skipped, and each JAR's sources can be moved out of the merged tree. Resources are copied
+ * from the JAR itself, since several JARs usually bring the same {@code META-INF} files. JARs
+ * whose sources or file name clash with an earlier one cannot be told apart in the merged
+ * output, so they are left out of the batch.
+ */
+final class DecompileBatch {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /** Everything but class files: what the decompiler would copy through unchanged. */
+    private static final EntryFilter RESOURCES = EntryFilter.of(List.of(), List.of("**/*" + CLASS_SUFFIX));
+
+    private final Map<Path, Set<String>> sourcesByJar;
+    private final List<Path> excluded;
+
+    private DecompileBatch(Map<Path, Set<String>> sourcesByJar, List<Path> excluded) {
+        this.sourcesByJar = sourcesByJar;
+        this.excluded = excluded;
+    }
+
+    /**
+     * Reads the class entries of the JARs and decides which of them can share a run.
+     *
+     * @throws IOException if a JAR cannot be read
+     */
+    static DecompileBatch plan(Collection<Path> jars) throws IOException {
+        Map<Path, Set<String>> sourcesByJar = new LinkedHashMap<>();
+        List<Path> excluded = new ArrayList<>();
+        Set<String> claimed = new HashSet<>();
+        for (Path jar : jars) {
+            Set<String> sources = sourcesOf(jar);
+            String legacyOutput = jar.getFileName().toString();
+            if (claimed.contains(legacyOutput) || !Collections.disjoint(claimed, sources)) {
+                excluded.add(jar);
+                continue;
+            }
+            claimed.add(legacyOutput);
+            claimed.addAll(sources);
+            sourcesByJar.put(jar, sources);
+        }
+        return new DecompileBatch(sourcesByJar, excluded);
+    }
+
+    /**
+     * Returns the source files the decompiler may write for the classes of a JAR: one per outer
+     * class, which holds its inner classes, and one per inner class it cannot nest, such as an
+     * anonymous class whose enclosing method is unknown.
+     */
+    private static Set<String> sourcesOf(Path jar) throws IOException {
+        Set<String> classes = new HashSet<>();
+        try (var archive = MappedZipArchive.open(jar)) {
+            var entry = archive.cursor();
+            while (entry.next()) {
+                if (entry.nameEndsWith(CLASS_SUFFIX)) {
+                    String name = entry.name();
+                    classes.add(name.substring(0, name.length() - CLASS_SUFFIX.length()));
+                }
+            }
+        }
+        Set<String> sources = new HashSet<>();
+        for (String name : classes) {
+            sources.add(ClassNames.outerClassOf(name, classes) + ".java");
+            sources.add(name + ".java");
+        }
+        return sources;
+    }
+
+    /**
+     * Returns the JARs to decompile together.
+     */
+    List<Path> jars() {
+        return List.copyOf(sourcesByJar.keySet());
+    }
+
+    /**
+     * Returns the JARs that clash with another one and must be decompiled on their own.
+     */
+    List<Path> excluded() {
+        return excluded;
+    }
+
+    /**
+     * Moves one JAR's share of the merged decompiler output into its own directory.
+     */
+    void split(Path jar, Path mergedDir, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        Path legacyOutput = mergedDir.resolve(jar.getFileName().toString());
+        if (Files.isRegularFile(legacyOutput)) {
+            Files.move(legacyOutput, outputDir.resolve(legacyOutput.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        for (String source : sourcesByJar.get(jar)) {
+            Path decompiled = mergedDir.resolve(source);
+            if (Files.isRegularFile(decompiled)) {
+                Path target = outputDir.resolve(source);
+                Files.createDirectories(target.getParent());
+                Files.move(decompiled, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        copyResources(jar, outputDir);
+    }
+
+    private static void copyResources(Path jar, Path outputDir) throws IOException {
+        if (!Extractor.extractArchive(jar, outputDir, RESOURCES)) {
+            throw new IOException("Failed to copy the resources of " + jar);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.mavenextractor.decompiler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of a long-lived decompiler worker process, started by {@link DecompilerWorkerPool}.
+ * <p>
+ * Usage: {@code DecompilerWorker <decompiler.jar> [options...]}. The worker loads the decompiler
+ * once and then serves requests, one per line on stdin, answering each with one line on stdout.
+ * Fields are separated by tabs:
+ * <pre>
+ * (on start)                   READY | ERROR &lt;message&gt;
+ * PING                         PONG &lt;retained&gt; &lt;max&gt;
+ * DECOMPILE &lt;jar&gt; &lt;outputDir&gt;  SUCCEEDED | FAILED | DECLINED, then &lt;retained&gt; &lt;max&gt;
+ * </pre>
+ * A {@code DECOMPILE} request may name library JARs after the output directory.
+ * {@code retained} is the heap still in use after the last garbage collection and {@code max}
+ * the maximum heap, both in bytes, so the pool can recycle a worker whose heap keeps growing.
+ * The worker exits when stdin is closed. Everything else it prints, including its log, goes
+ * to stderr.
+ */
+public final class DecompilerWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecompilerWorker.class);
+
+    static final String READY = "READY";
+    static final String ERROR = "ERROR";
+    static final String PING = "PING";
+    static final String PONG = "PONG";
+    static final String DECOMPILE = "DECOMPILE";
+    static final char SEPARATOR = '\t';
+
+    private DecompilerWorker() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        // stdout carries the protocol: claim it before anything else can print to it
+        var protocol = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+
+        if (args.length < 1) {
+            protocol.println(ERROR + SEPARATOR + "usage: DecompilerWorker <decompiler.jar> [options...]");
+            System.exit(2);
+        }
+
+        InProcessDecompiler decompiler;
+        try {
+            decompiler = InProcessDecompiler.load(Path.of(args[0]), List.of(Arrays.copyOfRange(args, 1, args.length)));
+        } catch (IOException e) {
+            protocol.println(ERROR + SEPARATOR + oneLine(e.getMessage()));
+            System.exit(1);
+            return;
+        }
+        protocol.println(READY);
+
+        var requests = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String request;
+        while ((request = requests.readLine()) != null) {
+            String[] fields = request.split(String.valueOf(SEPARATOR), -1);
+            String status = switch (fields[0]) {
+                case PING -> PONG;
+                case DECOMPILE -> decompile(decompiler, fields).name();
+                default -> ERROR;
+            };
+            protocol.println(status + SEPARATOR + retainedHeap() + SEPARATOR + Runtime.getRuntime().maxMemory());
+            if (!decompiler.isHealthy()) {
+                // Out of memory, or a job still running that could not be stopped: let the pool replace us
+                logger.warn("Decompiler worker exiting after an abandoned or out-of-memory job");
+                break;
+            }
+        }
+        decompiler.close();
+    }
+
+    private static InProcessDecompiler.Result decompile(InProcessDecompiler decompiler, String[] fields)
+            throws InterruptedException {
+        if (fields.length < 3) {
+            return InProcessDecompiler.Result.FAILED;
+        }
+        List<Path> libraries = Arrays.stream(fields, 3, fields.length).map(Path::of).toList();
+        try {
+            return decompiler.decompile(Path.of(fields[1]), Path.of(fields[2]), libraries);
+        } catch (IOException e) {
+            logger.error("Decompilation error for: {}", fields[1], e);
+            return InProcessDecompiler.Result.FAILED;
+        }
+    }
+
+    /**
+     * Returns the heap in use after the most recent collection of each heap pool: the part of
+     * the heap that is actually retained, unlike the current usage, which includes garbage.
+     */
+    private static long retainedHeap() {
+        long retained = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                retained += usage.getUsed();
+            }
+        }
+        return retained;
+    }
+
+    private static String oneLine(String message) {
+        return String.valueOf(message).replace('\n', ' ').replace('\r', ' ');
+    }
+}
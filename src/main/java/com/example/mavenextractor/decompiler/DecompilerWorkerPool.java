@@ -0,0 +1,342 @@
+package com.example.mavenextractor.decompiler;
+
+import com.example.mavenextractor.util.ProcessExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of long-lived decompiler processes, each running {@link DecompilerWorker}.
+ * <p>
+ * Decompilation stays isolated from the extractor's JVM, but a worker pays for JVM start-up
+ * and JIT warm-up once rather than once per artifact. Workers are started on demand, up to the
+ * pool size, and each takes one artifact at a time. A worker is recycled after
+ * {@value #MAX_JOBS_PER_WORKER} jobs, or once its retained heap passes half of its maximum
+ * heap, so leaks in the decompiler cannot build up. A worker that has been idle for a while
+ * is pinged before it gets a job. A worker that crashes is replaced, and its artifact is
+ * retried once on a fresh worker.
+ */
+final class DecompilerWorkerPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecompilerWorkerPool.class);
+
+    private static final int MAX_JOBS_PER_WORKER = 100;
+    private static final double MAX_RETAINED_HEAP_SHARE = 0.5;
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration PING_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration JOB_TIMEOUT = Duration.ofMinutes(2);
+
+    /** Idle time after which a worker is pinged before it is given a job. */
+    private static final Duration HEALTH_CHECK_AFTER = Duration.ofSeconds(30);
+
+    /** Logback configuration of workers, a resource on the class path they share with us. */
+    private static final String WORKER_LOGBACK_CONFIG = "logback-worker.xml";
+
+    /** Reply of a worker that has exited or stopped answering. */
+    private static final String NO_REPLY = "";
+
+    private final List<String> command;
+    private final Semaphore slots;
+    private final ConcurrentLinkedDeque<Worker> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicInteger recycled = new AtomicInteger();
+    private final AtomicInteger crashed = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param decompilerJar the decompiler the workers load
+     * @param options decompiler options, as passed on its command line
+     * @param size maximum number of worker processes
+     */
+    DecompilerWorkerPool(Path decompilerJar, List<String> options, int size) {
+        this.command = workerCommand(decompilerJar, options);
+        this.slots = new Semaphore(size);
+    }
+
+    /**
+     * Builds the command that starts a worker with this JVM's launcher, on its class or module path.
+     */
+    private static List<String> workerCommand(Path decompilerJar, List<String> options) {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(ProcessExecutor.javaLauncher());
+        // Log to stderr only, which is forwarded to our log, rather than to our log file too
+        cmd.add("-Dlogback.configurationFile=" + WORKER_LOGBACK_CONFIG);
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && !modulePath.isEmpty()) {
+            cmd.add("--module-path");
+            cmd.add(modulePath);
+            cmd.add("--module");
+            cmd.add(DecompilerWorker.class.getModule().getName() + "/" + DecompilerWorker.class.getName());
+        } else {
+            cmd.add("-cp");
+            cmd.add(System.getProperty("java.class.path"));
+            cmd.add(DecompilerWorker.class.getName());
+        }
+        cmd.add(decompilerJar.toString());
+        cmd.addAll(options);
+        return List.copyOf(cmd);
+    }
+
+    /**
+     * Decompiles a JAR on the next free worker, waiting for one if all are busy.
+     *
+     * @throws IOException if no worker can be started
+     */
+    InProcessDecompiler.Result decompile(Path jarPath, Path outputDir, List<Path> libraries)
+            throws IOException, InterruptedException {
+        var request = new StringBuilder(DecompilerWorker.DECOMPILE)
+            .append(DecompilerWorker.SEPARATOR).append(jarPath)
+            .append(DecompilerWorker.SEPARATOR).append(outputDir);
+        libraries.forEach(library -> request.append(DecompilerWorker.SEPARATOR).append(library));
+        if (request.indexOf("\n") >= 0 || request.indexOf("\r") >= 0) {
+            // Cannot be framed as one line; let a one-off process handle it
+            return InProcessDecompiler.Result.DECLINED;
+        }
+
+        slots.acquire();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Worker worker = healthyWorker();
+                Reply reply;
+                try {
+                    reply = worker.call(request.toString(), JOB_TIMEOUT);
+                } catch (InterruptedException e) {
+                    // The caller gave up (e.g. run deadline) with the job still running
+                    worker.kill();
+                    throw e;
+                }
+
+                if (reply == null) {
+                    // A worker that closed its output exits right after; one that did not answer is still running
+                    boolean timedOut;
+                    try {
+                        timedOut = !worker.process.waitFor(1, TimeUnit.SECONDS);
+                    } finally {
+                        worker.kill();
+                    }
+                    crashed.incrementAndGet();
+                    if (timedOut) {
+                        logger.warn("Decompiler worker {} timed out on {}", worker.id, jarPath);
+                        return InProcessDecompiler.Result.FAILED;
+                    }
+                    logger.warn("Decompiler worker {} exited (code {}) while decompiling {}",
+                        worker.id, worker.process.exitValue(), jarPath);
+                    if (attempt == 1) {
+                        continue;
+                    }
+                    return InProcessDecompiler.Result.FAILED;
+                }
+
+                giveBack(worker, reply);
+                return switch (reply.status()) {
+                    case "SUCCEEDED" -> InProcessDecompiler.Result.SUCCEEDED;
+                    case "DECLINED" -> InProcessDecompiler.Result.DECLINED;
+                    default -> InProcessDecompiler.Result.FAILED;
+                };
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Takes an idle worker that is still alive and answers a ping if it has been idle a while,
+     * or starts a new one. The caller holds a slot, so the pool never exceeds its size.
+     */
+    private Worker healthyWorker() throws IOException, InterruptedException {
+        Worker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            boolean healthy;
+            try {
+                healthy = isHealthy(worker);
+            } catch (InterruptedException e) {
+                worker.kill();
+                throw e;
+            }
+            if (healthy) {
+                return worker;
+            }
+            worker.kill();
+            crashed.incrementAndGet();
+            logger.warn("Decompiler worker {} failed its health check, replacing it", worker.id);
+        }
+        return start();
+    }
+
+    private static boolean isHealthy(Worker worker) throws InterruptedException {
+        if (!worker.process.isAlive()) {
+            return false;
+        }
+        if (System.nanoTime() - worker.lastUsed < HEALTH_CHECK_AFTER.toNanos()) {
+            return true;
+        }
+        Reply pong = worker.call(DecompilerWorker.PING, PING_TIMEOUT);
+        return pong != null && pong.status().equals(DecompilerWorker.PONG);
+    }
+
+    /**
+     * Returns a worker to the pool, or stops it if it is due to be recycled.
+     */
+    private void giveBack(Worker worker, Reply reply) {
+        worker.jobs++;
+        worker.lastUsed = System.nanoTime();
+        boolean worn = worker.jobs >= MAX_JOBS_PER_WORKER;
+        boolean bloated = reply.retainedHeap() > reply.maxHeap() * MAX_RETAINED_HEAP_SHARE;
+        if (closed || worn || bloated) {
+            if (!closed) {
+                recycled.incrementAndGet();
+                logger.debug("Recycling decompiler worker {} after {} jobs ({} MB retained)",
+                    worker.id, worker.jobs, reply.retainedHeap() / (1024 * 1024));
+            }
+            worker.stop();
+        } else {
+            // Most recently used first: its code is the warmest
+            idle.offerFirst(worker);
+        }
+    }
+
+    private Worker start() throws IOException, InterruptedException {
+        int id = nextId.incrementAndGet();
+        Process process = new ProcessBuilder(command).start();
+        var worker = new Worker(id, process);
+        String ready = worker.replies.poll(START_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        if (!DecompilerWorker.READY.equals(ready)) {
+            worker.kill();
+            throw new IOException("Decompiler worker " + id + " did not start: "
+                + (ready == null || ready.equals(NO_REPLY) ? "no answer" : ready));
+        }
+        logger.debug("Started decompiler worker {} (pid {})", id, process.pid());
+        return worker;
+    }
+
+    /**
+     * Stops all idle workers. Busy workers are stopped as soon as their job completes.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Worker worker;
+        while ((worker = idle.pollFirst()) != null) {
+            worker.stop();
+        }
+        if (nextId.get() > 0) {
+            logger.info("Decompiler workers: {} started, {} recycled, {} crashed or hung",
+                nextId.get(), recycled.get(), crashed.get());
+        }
+    }
+
+    /**
+     * A worker's reply to a request.
+     */
+    private record Reply(String status, long retainedHeap, long maxHeap) {
+        static Reply parse(String line) {
+            String[] fields = line.split(String.valueOf(DecompilerWorker.SEPARATOR));
+            if (fields.length == 3) {
+                try {
+                    return new Reply(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+                } catch (NumberFormatException e) {
+                    // Fall through: report the status alone
+                }
+            }
+            return new Reply(fields[0], 0, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * One worker process. Its stdout is read by a virtual thread into a queue, so requests can
+     * time out; its stderr is forwarded to our log.
+     */
+    private static final class Worker {
+        final int id;
+        final Process process;
+        final Writer requests;
+        final BlockingQueue<String> replies = new LinkedBlockingQueue<>();
+        int jobs;
+        long lastUsed = System.nanoTime();
+
+        Worker(int id, Process process) {
+            this.id = id;
+            this.process = process;
+            this.requests = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+            Thread.ofVirtual().name("decompiler-worker-" + id + "-out").start(this::readReplies);
+            Thread.ofVirtual().name("decompiler-worker-" + id + "-err").start(this::forwardErrors);
+        }
+
+        /**
+         * Sends a request and waits for its reply.
+         *
+         * @return the reply, or null if the worker has exited or did not answer in time
+         */
+        Reply call(String request, Duration timeout) throws InterruptedException {
+            try {
+                requests.write(request);
+                requests.write('\n');
+                requests.flush();
+            } catch (IOException e) {
+                return null;
+            }
+            String line = replies.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return line == null || line.equals(NO_REPLY) ? null : Reply.parse(line);
+        }
+
+        private void readReplies() {
+            try (var in = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    replies.add(line);
+                }
+            } catch (IOException e) {
+                // Treated like an exit
+            }
+            replies.add(NO_REPLY);
+        }
+
+        private void forwardErrors() {
+            try (var in = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    logger.debug("[worker {}] {}", id, line);
+                }
+            } catch (IOException e) {
+                // The worker is gone
+            }
+        }
+
+        /**
+         * Asks the worker to exit by closing its stdin, and kills it if it has not within a few seconds.
+         */
+        void stop() {
+            try {
+                requests.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            process.onExit().orTimeout(5, TimeUnit.SECONDS).exceptionally(e -> process.destroyForcibly());
+        }
+
+        /**
+         * Kills a worker that is hung or whose job is no longer wanted.
+         */
+        void kill() {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -1,26 +1,76 @@
 package com.example.mavenextractor.decompiler;
 
+import com.example.mavenextractor.config.DecompilerMode;
+import com.example.mavenextractor.util.FileHashes;
 import com.example.mavenextractor.util.ProcessExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 
 /**
  * Wrapper for the Fernflower Java decompiler (java-decompiler.jar).
+ * Runs it as a separate process per artifact, in-process in {@link DecompilerMode#IN_PROCESS} mode,
+ * or on a pool of worker processes in {@link DecompilerMode#WORKERS} mode.
  */
-public class DecompilerWrapper {
+public class DecompilerWrapper implements Closeable {
 
     private static final Logger logger = LoggerFactory.getLogger(DecompilerWrapper.class);
 
+    /**
+     * Fernflower options passed on every invocation.
+     */
+    private static final List<String> OPTIONS = List.of(
+        "-hes=0",  // Hide empty super
+        "-hdc=0"   // Hide default constructor
+    );
+
+    /**
+     * Time a decompiler process gets per JAR.
+     */
+    static final Duration TIMEOUT_PER_JAR = Duration.ofMinutes(2);
+
     private final Path decompilerPath;
+    private final DecompilerMode mode;
+    private final int workers;
+    private final Object engineLock = new Object();
+
+    private volatile String version;
+    private InProcessDecompiler inProcess;
+    private boolean inProcessUnavailable;
+    private DecompilerWorkerPool workerPool;
+    private volatile boolean workersUnavailable;
 
     public DecompilerWrapper(Path decompilerPath) {
+        this(decompilerPath, DecompilerMode.PROCESS);
+    }
+
+    public DecompilerWrapper(Path decompilerPath, DecompilerMode mode) {
+        this(decompilerPath, mode, 1);
+    }
+
+    /**
+     * @param decompilerPath the decompiler JAR
+     * @param mode how the decompiler is run
+     * @param workers number of worker processes in {@link DecompilerMode#WORKERS} mode
+     */
+    public DecompilerWrapper(Path decompilerPath, DecompilerMode mode, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1: " + workers);
+        }
         this.decompilerPath = decompilerPath;
+        this.mode = mode;
+        this.workers = workers;
     }
 
     /**
@@ -31,43 +81,218 @@ public class DecompilerWrapper {
      * @return true if decompilation succeeded, false otherwise
      */
     public boolean decompile(Path jarPath, Path outputDir) {
+        return decompile(jarPath, outputDir, List.of());
+    }
+
+    /**
+     * Decompiles a JAR file to the specified output directory, resolving the classes it refers
+     * to against library JARs, which are not decompiled themselves.
+     *
+     * @param jarPath the path to the JAR file to decompile
+     * @param outputDir the output directory for decompiled sources
+     * @param libraries JARs providing context, such as the full JAR a reduced one was taken from
+     * @return true if decompilation succeeded, false otherwise
+     */
+    public boolean decompile(Path jarPath, Path outputDir, List<Path> libraries) {
         if (!Files.exists(decompilerPath)) {
             logger.error("Decompiler not found: {}", decompilerPath);
             return false;
         }
 
+        try {
+            InProcessDecompiler.Result result = switch (mode) {
+                case PROCESS -> InProcessDecompiler.Result.DECLINED;
+                case IN_PROCESS -> {
+                    InProcessDecompiler engine = inProcessEngine();
+                    yield engine != null
+                        ? engine.decompile(jarPath, outputDir, libraries)
+                        : InProcessDecompiler.Result.DECLINED;
+                }
+                case WORKERS -> decompileOnWorker(jarPath, outputDir, libraries);
+            };
+            switch (result) {
+                case SUCCEEDED -> {
+                    logger.debug("Decompilation succeeded ({}): {}", mode, jarPath);
+                    return true;
+                }
+                case FAILED -> {
+                    return false;
+                }
+                case DECLINED -> {
+                    if (mode != DecompilerMode.PROCESS) {
+                        logger.info("  → Decompiling {} in a separate process", jarPath.getFileName());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Decompilation interrupted: {}", jarPath);
+            return false;
+        } catch (IOException e) {
+            logger.error("Decompilation error for: {}", jarPath, e);
+            return false;
+        }
+        return decompileInSubprocess(List.of(jarPath), outputDir, libraries);
+    }
+
+    /**
+     * Decompiles several JARs, each into its own output directory.
+     * <p>
+     * In {@link DecompilerMode#PROCESS} mode they share one decompiler process, whose output is
+     * split back per JAR (see {@link DecompileBatch}), so JVM start-up is paid once per batch.
+     * JARs that clash with another one are decompiled on their own, and if the shared process
+     * fails, every JAR is retried on its own. The other modes keep the decompiler warm anyway
+     * and decompile the JARs one by one.
+     *
+     * @param outputDirs the output directory of each JAR
+     * @param mergedDir scratch directory for the shared output; the caller deletes it
+     * @return the JARs that were decompiled
+     */
+    public Set<Path> decompileBatch(Map<Path, Path> outputDirs, Path mergedDir) {
+        Set<Path> decompiled = new HashSet<>();
+        List<Path> alone = new ArrayList<>(outputDirs.keySet());
+
+        if (mode == DecompilerMode.PROCESS && outputDirs.size() > 1 && Files.exists(decompilerPath)) {
+            try {
+                DecompileBatch batch = DecompileBatch.plan(outputDirs.keySet());
+                if (batch.jars().size() > 1) {
+                    alone = new ArrayList<>(batch.excluded());
+                    if (decompileInSubprocess(batch.jars(), mergedDir, List.of())) {
+                        for (Path jar : batch.jars()) {
+                            try {
+                                batch.split(jar, mergedDir, outputDirs.get(jar));
+                                decompiled.add(jar);
+                            } catch (IOException e) {
+                                logger.warn("Failed to split batch output for {}", jar, e);
+                                alone.add(jar);
+                            }
+                        }
+                    } else {
+                        logger.warn("Batch of {} JARs failed, decompiling them one by one", batch.jars().size());
+                        alone.addAll(batch.jars());
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot batch {} JARs, decompiling them one by one", outputDirs.size(), e);
+            }
+        }
+
+        for (Path jar : alone) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (decompile(jar, outputDirs.get(jar))) {
+                decompiled.add(jar);
+            }
+        }
+        return decompiled;
+    }
+
+    /**
+     * Decompiles on the worker pool; if workers cannot be started, every artifact falls back to a process.
+     */
+    private InProcessDecompiler.Result decompileOnWorker(Path jarPath, Path outputDir, List<Path> libraries)
+            throws IOException, InterruptedException {
+        if (workersUnavailable) {
+            return InProcessDecompiler.Result.DECLINED;
+        }
+        DecompilerWorkerPool pool;
+        synchronized (engineLock) {
+            if (workerPool == null) {
+                workerPool = new DecompilerWorkerPool(decompilerPath, OPTIONS, workers);
+            }
+            pool = workerPool;
+        }
+        Files.createDirectories(outputDir);
+        try {
+            return pool.decompile(jarPath, outputDir, libraries);
+        } catch (IOException e) {
+            workersUnavailable = true;
+            logger.warn("Cannot start decompiler workers, using a process per artifact", e);
+            return InProcessDecompiler.Result.DECLINED;
+        }
+    }
+
+    /**
+     * Decompiles JARs with one new {@code java -jar} process on this JVM's own launcher.
+     */
+    private boolean decompileInSubprocess(List<Path> jarPaths, Path outputDir, List<Path> libraries) {
+        Object jars = jarPaths.size() == 1 ? jarPaths.get(0) : jarPaths.size() + " JARs";
         try {
             Files.createDirectories(outputDir);
 
-            // Build command: java -jar decompiler.jar -hes=0 -hdc=0 jarPath outputDir
-            List<String> cmd = List.of(
-                "java",
-                "-jar",
-                decompilerPath.toString(),
-                "-hes=0",  // Hide empty super
-                "-hdc=0",  // Hide default constructor
-                jarPath.toString(),
-                outputDir.toString()
-            );
+            // Build command: java -jar decompiler.jar -hes=0 -hdc=0 [-e=library...] jarPath... outputDir
+            List<String> cmd = new ArrayList<>();
+            cmd.add(ProcessExecutor.javaLauncher());
+            cmd.add("-jar");
+            cmd.add(decompilerPath.toString());
+            cmd.addAll(OPTIONS);
+            libraries.forEach(library -> cmd.add("-e=" + library));
+            jarPaths.forEach(jar -> cmd.add(jar.toString()));
+            cmd.add(outputDir.toString());
 
-            logger.debug("Decompiling: {} -> {}", jarPath, outputDir);
+            logger.debug("Decompiling: {} -> {}", jars, outputDir);
 
-            var result = ProcessExecutor.execute(cmd, null, java.time.Duration.ofMinutes(2));
+            var result = ProcessExecutor.execute(cmd, null, TIMEOUT_PER_JAR.multipliedBy(jarPaths.size()));
 
             if (result.isSuccess()) {
-                logger.debug("Decompilation succeeded: {}", jarPath);
+                logger.debug("Decompilation succeeded: {}", jars);
                 return true;
             } else {
-                logger.warn("Decompilation failed for {}: {}", jarPath, result.stderr());
+                logger.warn("Decompilation failed for {}: {}", jars, result.stderr());
                 return false;
             }
 
-        } catch (IOException | InterruptedException | TimeoutException e) {
-            logger.error("Decompilation error for: {}", jarPath, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Decompilation interrupted: {}", jars);
+            return false;
+        } catch (IOException | TimeoutException e) {
+            logger.error("Decompilation error for: {}", jars, e);
             return false;
         }
     }
 
+    /**
+     * Loads the in-process engine on first use; if that fails, every artifact falls back to a process.
+     */
+    private InProcessDecompiler inProcessEngine() {
+        synchronized (engineLock) {
+            if (inProcess == null && !inProcessUnavailable) {
+                try {
+                    inProcess = InProcessDecompiler.load(decompilerPath, OPTIONS);
+                    logger.debug("Loaded decompiler in-process: {}", decompilerPath);
+                } catch (IOException e) {
+                    inProcessUnavailable = true;
+                    logger.warn("Cannot run the decompiler in-process, using a process per artifact", e);
+                }
+            }
+            return inProcess;
+        }
+    }
+
+    /**
+     * Returns the options passed to the decompiler.
+     */
+    public List<String> options() {
+        return OPTIONS;
+    }
+
+    /**
+     * Returns a version identifier of the decompiler: the SHA-256 of its JAR.
+     * Computed once and cached for the lifetime of this wrapper.
+     *
+     * @throws IOException if the decompiler JAR cannot be read
+     */
+    public String version() throws IOException {
+        String current = version;
+        if (current == null) {
+            current = FileHashes.sha256(decompilerPath);
+            version = current;
+        }
+        return current;
+    }
+
     /**
      * Checks if the decompiler is available.
      *
@@ -76,4 +301,21 @@ public class DecompilerWrapper {
     public boolean isAvailable() {
         return Files.exists(decompilerPath) && Files.isRegularFile(decompilerPath);
     }
+
+    /**
+     * Unloads the in-process decompiler and stops the worker processes, if any were started.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (engineLock) {
+            if (workerPool != null) {
+                workerPool.close();
+                workerPool = null;
+            }
+            if (inProcess != null) {
+                inProcess.close();
+                inProcess = null;
+            }
+        }
+    }
 }
@@ -0,0 +1,348 @@
+package com.example.mavenextractor.decompiler;
+
+import com.example.mavenextractor.extractor.Extractor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs Fernflower (or a fork with the same console API, such as Vineflower) inside this JVM.
+ * <p>
+ * The decompiler JAR is loaded once into its own class loader, whose parent is the platform
+ * class loader, so its classes cannot clash with ours and stay JIT-compiled across artifacts.
+ * Each artifact gets a fresh {@code ConsoleDecompiler}, which writes every class to the output
+ * directory as soon as it is decompiled. Fernflower keeps its per-run state in thread-locals,
+ * so several artifacts may be decompiled concurrently.
+ * <p>
+ * Decompilation holds the class graph of a whole JAR in memory. Every artifact reserves an
+ * estimate from a heap budget before it starts; an artifact whose estimate exceeds the whole
+ * budget is reported as {@link Result#DECLINED} so the caller can fall back to a separate process.
+ * Running out of memory leaves this JVM in an undefined state, so it turns in-process
+ * decompilation off for good: every later artifact is declined too.
+ * <p>
+ * Each artifact runs on its own daemon thread and writes into a private staging directory that
+ * is moved into place once it completes. An artifact that takes longer than a decompiler
+ * process would be given, or whose caller is interrupted, is abandoned: it is declined, and its
+ * thread, which cannot be stopped, keeps its heap reservation and removes its staging directory
+ * when it eventually ends.
+ */
+final class InProcessDecompiler implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InProcessDecompiler.class);
+
+    private static final String CONSOLE_DECOMPILER = "org.jetbrains.java.decompiler.main.decompiler.ConsoleDecompiler";
+    private static final String PRINT_STREAM_LOGGER = "org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger";
+    private static final String LOGGER_BASE = "org.jetbrains.java.decompiler.main.extern.IFernflowerLogger";
+    private static final String SAVE_TYPE = CONSOLE_DECOMPILER + "$SaveType";
+
+    /** Heap an artifact is assumed to need per byte of JAR, plus a fixed overhead. */
+    private static final int HEAP_PER_JAR_BYTE = 24;
+    private static final long HEAP_OVERHEAD = 16L * 1024 * 1024;
+
+    /** Time an artifact gets, as long as a decompiler process gets for one JAR. */
+    private static final Duration TIMEOUT = DecompilerWrapper.TIMEOUT_PER_JAR;
+
+    /** Share of the maximum heap that concurrent decompilations may reserve. */
+    private static final double HEAP_SHARE = 0.5;
+
+    /**
+     * Outcome of an in-process decompilation.
+     */
+    enum Result {
+        SUCCEEDED,
+        FAILED,
+        /** Not attempted or abandoned for lack of memory: run it in a separate process instead. */
+        DECLINED
+    }
+
+    private final URLClassLoader classLoader;
+    private final Constructor<?> decompilerConstructor;
+    private final Object folderSaveType;
+    private final Constructor<?> loggerConstructor;
+    private final Method addSource;
+    private final Method addLibrary;
+    private final Method decompileContext;
+    private final Map<String, Object> options;
+    private final Semaphore heapBudget;
+    private final int budgetKilobytes;
+    private final AtomicInteger jobs = new AtomicInteger();
+    private final AtomicInteger abandoned = new AtomicInteger();
+    private volatile boolean outOfMemory;
+
+    private InProcessDecompiler(URLClassLoader classLoader, List<String> options) throws ReflectiveOperationException {
+        this.classLoader = classLoader;
+        Class<?> decompiler = classLoader.loadClass(CONSOLE_DECOMPILER);
+        Class<?> loggerBase = classLoader.loadClass(LOGGER_BASE);
+        // The constructors are protected: main() is their only public entry point.
+        // Vineflower can write a plain directory tree; Fernflower always writes a source jar.
+        Object saveType = null;
+        Constructor<?> constructor;
+        try {
+            Class<?> saveTypes = classLoader.loadClass(SAVE_TYPE);
+            saveType = saveTypes.getMethod("valueOf", String.class).invoke(null, "FOLDER");
+            constructor = decompiler.getDeclaredConstructor(File.class, Map.class, loggerBase, saveTypes);
+        } catch (ReflectiveOperationException e) {
+            constructor = decompiler.getDeclaredConstructor(File.class, Map.class, loggerBase);
+        }
+        constructor.setAccessible(true);
+        this.decompilerConstructor = constructor;
+        this.folderSaveType = saveType;
+        this.loggerConstructor = classLoader.loadClass(PRINT_STREAM_LOGGER).getConstructor(PrintStream.class);
+        this.addSource = decompiler.getMethod("addSource", File.class);
+        this.addLibrary = decompiler.getMethod("addLibrary", File.class);
+        this.decompileContext = decompiler.getMethod("decompileContext");
+        this.options = toOptionMap(options);
+
+        long budget = (long) (Runtime.getRuntime().maxMemory() * HEAP_SHARE) / 1024;
+        this.budgetKilobytes = (int) Math.min(Integer.MAX_VALUE, budget);
+        this.heapBudget = new Semaphore(budgetKilobytes);
+    }
+
+    /**
+     * Loads the decompiler from its JAR.
+     *
+     * @throws IOException if the JAR does not contain a Fernflower-compatible console decompiler
+     */
+    static InProcessDecompiler load(Path decompilerJar, List<String> options) throws IOException {
+        URL url = decompilerJar.toUri().toURL();
+        var classLoader = new URLClassLoader("decompiler", new URL[] {url}, ClassLoader.getPlatformClassLoader());
+        try {
+            return new InProcessDecompiler(classLoader, options);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            classLoader.close();
+            throw new IOException("Not a Fernflower-compatible decompiler: " + decompilerJar, e);
+        }
+    }
+
+    /**
+     * Decompiles a JAR into a directory, waiting for heap budget if other artifacts hold it.
+     * The directory must not contain any of the files being written.
+     *
+     * @param libraries JARs whose classes are loaded for context but not decompiled
+     */
+    Result decompile(Path jarPath, Path outputDir, List<Path> libraries) throws IOException, InterruptedException {
+        if (outOfMemory) {
+            return Result.DECLINED;
+        }
+        long bytes = Files.size(jarPath);
+        for (Path library : libraries) {
+            bytes += Files.size(library);
+        }
+        long estimate = (bytes * HEAP_PER_JAR_BYTE + HEAP_OVERHEAD) / 1024;
+        if (estimate > budgetKilobytes) {
+            logger.debug("{} needs about {} MB, more than the in-process budget of {} MB", jarPath.getFileName(),
+                estimate / 1024, budgetKilobytes / 1024);
+            return Result.DECLINED;
+        }
+
+        int permits = (int) estimate;
+        if (!heapBudget.tryAcquire(permits, TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            // Held by abandoned artifacts that are still running
+            logger.debug("No in-process heap budget for {} within {}", jarPath.getFileName(), TIMEOUT);
+            return Result.DECLINED;
+        }
+        Path staging;
+        try {
+            Files.createDirectories(outputDir);
+            staging = Files.createTempDirectory(outputDir.toAbsolutePath().getParent(),
+                outputDir.getFileName() + "-in-process-");
+        } catch (IOException e) {
+            heapBudget.release(permits);
+            throw e;
+        }
+
+        var abandon = new AtomicBoolean();
+        var job = new FutureTask<>(() -> run(jarPath, staging, libraries));
+        Thread thread = Thread.ofPlatform()
+            .name("in-process-decompiler-" + jobs.incrementAndGet())
+            .daemon()
+            .start(() -> {
+                try {
+                    job.run();
+                } finally {
+                    heapBudget.release(permits);
+                    if (abandon.get()) {
+                        deleteQuietly(staging);
+                    }
+                }
+            });
+
+        Result result;
+        try {
+            result = job.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Decompiling {} in-process took longer than {}, abandoning it", jarPath.getFileName(), TIMEOUT);
+            abandon(thread, job, abandon, staging);
+            return Result.DECLINED;
+        } catch (InterruptedException e) {
+            abandon(thread, job, abandon, staging);
+            throw e;
+        } catch (ExecutionException e) {
+            deleteQuietly(staging);
+            throw e.getCause() instanceof IOException io ? io : new IOException("Decompiler failed", e.getCause());
+        }
+
+        if (result == Result.SUCCEEDED) {
+            moveInto(staging, outputDir);
+        } else {
+            deleteQuietly(staging);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the decompiler on the calling thread, writing into the staging directory.
+     */
+    private Result run(Path jarPath, Path staging, List<Path> libraries) throws IOException {
+        Thread thread = Thread.currentThread();
+        // Plugins of Fernflower forks are found through the context class loader
+        thread.setContextClassLoader(classLoader);
+        try (var log = new PrintStream(new LogLineStream(), true, StandardCharsets.UTF_8)) {
+            Object printer = loggerConstructor.newInstance(log);
+            Object decompiler = folderSaveType != null
+                ? decompilerConstructor.newInstance(staging.toFile(), options, printer, folderSaveType)
+                : decompilerConstructor.newInstance(staging.toFile(), options, printer);
+            addSource.invoke(decompiler, jarPath.toFile());
+            for (Path library : libraries) {
+                addLibrary.invoke(decompiler, library.toFile());
+            }
+            decompileContext.invoke(decompiler);
+            return Result.SUCCEEDED;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof OutOfMemoryError) {
+                return outOfMemory(jarPath);
+            }
+            logger.warn("Decompilation failed for {}", jarPath, e.getCause());
+            return Result.FAILED;
+        } catch (OutOfMemoryError e) {
+            return outOfMemory(jarPath);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Cannot call the decompiler", e);
+        }
+    }
+
+    private Result outOfMemory(Path jarPath) {
+        outOfMemory = true;
+        logger.warn("Out of memory decompiling {} in-process; using separate processes for the rest of the run",
+            jarPath.getFileName());
+        return Result.DECLINED;
+    }
+
+    /**
+     * Gives up on a running artifact. Its thread is interrupted in case the decompiler checks,
+     * and whichever of it and this method sees the other finished removes the staging directory.
+     */
+    private void abandon(Thread thread, FutureTask<Result> job, AtomicBoolean abandon, Path staging) {
+        abandoned.incrementAndGet();
+        abandon.set(true);
+        thread.interrupt();
+        if (job.isDone()) {
+            deleteQuietly(staging);
+        }
+    }
+
+    /**
+     * Returns false once an artifact ran out of memory or was abandoned: this JVM is then
+     * better replaced, which a worker process does by exiting.
+     */
+    boolean isHealthy() {
+        return !outOfMemory && abandoned.get() == 0;
+    }
+
+    /**
+     * Moves the top-level entries of the staging directory into the output directory.
+     */
+    private static void moveInto(Path staging, Path outputDir) throws IOException {
+        try (var entries = Files.list(staging)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Files.move(entry, outputDir.resolve(entry.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.delete(staging);
+    }
+
+    private static void deleteQuietly(Path directory) {
+        try {
+            Extractor.deleteDirectory(directory);
+        } catch (IOException e) {
+            logger.debug("Failed to remove {}", directory, e);
+        }
+    }
+
+    /**
+     * Turns command-line options such as {@code -hes=0} into Fernflower's option map.
+     */
+    private static Map<String, Object> toOptionMap(List<String> options) {
+        Map<String, Object> map = new HashMap<>();
+        for (String option : options) {
+            int equals = option.indexOf('=');
+            if (option.startsWith("-") && equals > 1) {
+                map.put(option.substring(1, equals), option.substring(equals + 1));
+            }
+        }
+        // Messages go to our log; only warnings and errors are worth formatting
+        map.putIfAbsent("log", "WARN");
+        // Vineflower's main() reads JDK classes to infer generics; its constructor does not
+        map.putIfAbsent("include-runtime", "current");
+        return Map.copyOf(map);
+    }
+
+    @Override
+    public void close() throws IOException {
+        classLoader.close();
+    }
+
+    /**
+     * Forwards the decompiler's log output to SLF4J, one line per message.
+     */
+    private static final class LogLineStream extends OutputStream {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                flushLine();
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public void close() {
+            flushLine();
+        }
+
+        private void flushLine() {
+            if (line.size() > 0) {
+                logger.debug("{}", line.toString(StandardCharsets.UTF_8).strip());
+                line.reset();
+            }
+        }
+    }
+}
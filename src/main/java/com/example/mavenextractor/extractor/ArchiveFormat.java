@@ -0,0 +1,77 @@
+package com.example.mavenextractor.extractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Archive formats {@link Extractor} can unpack, recognized by their leading magic bytes.
+ */
+public enum ArchiveFormat {
+    ZIP("zip"),
+    TAR("tar"),
+    TAR_GZ("tar.gz"),
+    TAR_BZ2("tar.bz2"),
+    TAR_XZ("tar.xz"),
+    TAR_ZSTD("tar.zst");
+
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    private static final byte[] ZIP_EMPTY_MAGIC = {'P', 'K', 5, 6};
+    private static final byte[] GZIP_MAGIC = {0x1f, (byte) 0x8b};
+    private static final byte[] BZIP2_MAGIC = {'B', 'Z', 'h'};
+    private static final byte[] XZ_MAGIC = {(byte) 0xFD, '7', 'z', 'X', 'Z', 0};
+    private static final byte[] ZSTD_MAGIC = {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD};
+    private static final byte[] TAR_MAGIC = "ustar".getBytes(StandardCharsets.US_ASCII);
+    private static final int TAR_MAGIC_OFFSET = 257;
+
+    private final String displayName;
+
+    ArchiveFormat(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Detects the format of a file from its content. A ZIP with data prepended to it, such as
+     * a self-executing JAR, has no leading magic; {@code .zip} and {@code .jar} files are taken
+     * to be ZIP archives if nothing else matches.
+     *
+     * @return the format, or null if the file is not a supported archive
+     */
+    public static ArchiveFormat detect(Path path) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(path)) {
+            head = in.readNBytes(TAR_MAGIC_OFFSET + TAR_MAGIC.length);
+        }
+
+        if (startsWith(head, 0, ZIP_MAGIC) || startsWith(head, 0, ZIP_EMPTY_MAGIC)) {
+            return ZIP;
+        } else if (startsWith(head, 0, GZIP_MAGIC)) {
+            return TAR_GZ;
+        } else if (startsWith(head, 0, ZSTD_MAGIC)) {
+            return TAR_ZSTD;
+        } else if (startsWith(head, 0, XZ_MAGIC)) {
+            return TAR_XZ;
+        } else if (startsWith(head, 0, BZIP2_MAGIC)) {
+            return TAR_BZ2;
+        } else if (startsWith(head, TAR_MAGIC_OFFSET, TAR_MAGIC)) {
+            return TAR;
+        }
+
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return fileName.endsWith(".zip") || fileName.endsWith(".jar") ? ZIP : null;
+    }
+
+    private static boolean startsWith(byte[] head, int offset, byte[] magic) {
+        return head.length >= offset + magic.length
+            && Arrays.equals(head, offset, offset + magic.length, magic, 0, magic.length);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
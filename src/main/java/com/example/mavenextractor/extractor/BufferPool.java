@@ -0,0 +1,113 @@
+package com.example.mavenextractor.extractor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Inflater;
+
+/**
+ * Process-wide pools of I/O buffers and raw-DEFLATE {@link Inflater}s, so that extracting
+ * many archives reuses the same few buffers and inflaters instead of allocating them per
+ * archive or entry. This removes the bulk of per-entry garbage, not all of it: every entry
+ * still allocates its decoded name, its target {@code Path} and the {@code FileChannel} that
+ * writes it, about 1 KB in all.
+ * <p>
+ * Each pool is a fixed array of slots claimed with compare-and-set. A thread starts probing
+ * at a slot derived from its id, which spreads concurrent threads over different slots;
+ * neither acquiring nor releasing allocates. When every slot is empty a new object is created,
+ * and when every slot is full a released object is dropped.
+ */
+final class BufferPool {
+
+    /** Size of every pooled buffer. */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int SLOTS = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+
+    private static final Slots<ByteBuffer> directBuffers =
+        new Slots<>(() -> ByteBuffer.allocateDirect(BUFFER_SIZE), buffer -> { });
+    private static final Slots<ByteBuffer> heapBuffers =
+        new Slots<>(() -> ByteBuffer.allocate(BUFFER_SIZE), buffer -> { });
+    private static final Slots<Inflater> inflaters =
+        new Slots<>(() -> new Inflater(true), Inflater::end);
+
+    private BufferPool() {
+    }
+
+    /**
+     * @return a cleared direct buffer for channel I/O
+     */
+    static ByteBuffer acquireDirect() {
+        return directBuffers.acquire().clear();
+    }
+
+    static void releaseDirect(ByteBuffer buffer) {
+        directBuffers.release(buffer);
+    }
+
+    /**
+     * @return a cleared heap buffer, whose {@link ByteBuffer#array()} serves stream I/O
+     */
+    static ByteBuffer acquireHeap() {
+        return heapBuffers.acquire().clear();
+    }
+
+    static void releaseHeap(ByteBuffer buffer) {
+        heapBuffers.release(buffer);
+    }
+
+    /**
+     * @return a reset inflater for raw DEFLATE data, as stored in ZIP entries
+     */
+    static Inflater acquireInflater() {
+        Inflater inflater = inflaters.acquire();
+        inflater.reset();
+        return inflater;
+    }
+
+    static void releaseInflater(Inflater inflater) {
+        inflaters.release(inflater);
+    }
+
+    private static final class Slots<T> {
+        private final AtomicReferenceArray<T> slots = new AtomicReferenceArray<>(SLOTS);
+        private final Supplier<T> factory;
+        private final Consumer<T> disposer;
+
+        Slots(Supplier<T> factory, Consumer<T> disposer) {
+            this.factory = factory;
+            this.disposer = disposer;
+        }
+
+        T acquire() {
+            int start = start();
+            for (int i = 0; i < SLOTS; i++) {
+                int slot = (start + i) & (SLOTS - 1);
+                T pooled = slots.get(slot);
+                if (pooled != null && slots.compareAndSet(slot, pooled, null)) {
+                    ExtractorMetrics.recordPoolReuse();
+                    return pooled;
+                }
+            }
+            ExtractorMetrics.recordPoolAllocation();
+            return factory.get();
+        }
+
+        void release(T object) {
+            int start = start();
+            for (int i = 0; i < SLOTS; i++) {
+                int slot = (start + i) & (SLOTS - 1);
+                if (slots.get(slot) == null && slots.compareAndSet(slot, null, object)) {
+                    return;
+                }
+            }
+            disposer.accept(object);
+        }
+
+        private static int start() {
+            // Fibonacci hashing spreads sequential thread ids over the slots
+            return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 40);
+        }
+    }
+}
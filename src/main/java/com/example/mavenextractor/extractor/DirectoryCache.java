@@ -0,0 +1,65 @@
+package com.example.mavenextractor.extractor;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The directories one extraction has already made sure of, so that each is created with a
+ * single {@code mkdir} instead of the {@code stat}/{@code mkdir} walk {@link Files#createDirectories}
+ * repeats for every file entry. Not thread-safe: ZIP extraction plans the whole skeleton before
+ * ranges run concurrently, and TAR extraction is sequential.
+ */
+final class DirectoryCache {
+
+    private final Set<Path> known = new HashSet<>();
+    private int created;
+    private int hits;
+
+    /**
+     * @param root an existing directory that all entries are extracted below
+     */
+    DirectoryCache(Path root) {
+        known.add(root);
+    }
+
+    /**
+     * Makes sure a directory exists, creating missing parents first.
+     */
+    void ensure(Path directory) throws IOException {
+        if (known.contains(directory)) {
+            hits++;
+            return;
+        }
+        Path parent = directory.getParent();
+        if (parent != null && !known.contains(parent)) {
+            ensure(parent);
+        }
+        try {
+            Files.createDirectory(directory);
+            created++;
+        } catch (FileAlreadyExistsException e) {
+            if (!Files.isDirectory(directory)) {
+                throw e;
+            }
+        }
+        known.add(directory);
+    }
+
+    /**
+     * Makes sure the parent directory of a file exists.
+     */
+    void ensureParent(Path file) throws IOException {
+        ensure(file.getParent());
+    }
+
+    /**
+     * Adds this extraction's counts to the run statistics.
+     */
+    void record() {
+        ExtractorMetrics.recordDirectories(created, hits);
+    }
+}
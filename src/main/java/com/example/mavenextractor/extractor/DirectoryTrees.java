@@ -0,0 +1,173 @@
+package com.example.mavenextractor.extractor;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recursive copy and delete that process subtrees in parallel on a fork/join pool.
+ * <p>
+ * Each task lists one directory, handles its files itself and forks a task per subdirectory,
+ * so memory grows with the width of one directory times the depth of the tree rather than
+ * with the whole tree. Symbolic links are never followed into other trees: a copy recreates
+ * the link itself, pointing where the original does, and a delete removes it. A failure on one
+ * path does not stop the rest of the tree from being processed; once the whole tree has been,
+ * the first failure is thrown with any others attached as suppressed exceptions.
+ */
+final class DirectoryTrees {
+
+    // Directory I/O blocks, so allow more threads than cores to keep the disk queue full
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors() * 2,
+        pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("tree-io-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        },
+        null,
+        false);
+
+    private DirectoryTrees() {
+    }
+
+    /**
+     * Copies a directory tree; the target directory is created if needed.
+     *
+     * @throws IOException the first path that could not be copied, after all others were
+     */
+    static void copy(Path source, Path target) throws IOException {
+        Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+        POOL.invoke(new CopyTask(source, target, failures));
+        rethrow(failures);
+    }
+
+    /**
+     * Deletes a file or directory tree. A missing path is not an error.
+     *
+     * @throws IOException the first path that could not be deleted, after all others were
+     */
+    static void delete(Path path) throws IOException {
+        Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            POOL.invoke(new DeleteTask(path, failures));
+        } else {
+            deleteOne(path, failures);
+        }
+        rethrow(failures);
+    }
+
+    private static void rethrow(Queue<IOException> failures) throws IOException {
+        IOException first = failures.poll();
+        if (first != null) {
+            for (IOException other : failures) {
+                first.addSuppressed(other);
+            }
+            throw first;
+        }
+    }
+
+    private static final class CopyTask extends RecursiveAction {
+        private final Path source;
+        private final Path target;
+        private final Queue<IOException> failures;
+
+        CopyTask(Path source, Path target, Queue<IOException> failures) {
+            this.source = source;
+            this.target = target;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            List<CopyTask> subtrees = new ArrayList<>();
+            try {
+                Files.createDirectories(target);
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+                    for (Path entry : entries) {
+                        Path entryTarget = target.resolve(entry.getFileName().toString());
+                        if (Files.isSymbolicLink(entry)) {
+                            copyLink(entry, entryTarget);
+                        } else if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                            var subtree = new CopyTask(entry, entryTarget, failures);
+                            subtree.fork();
+                            subtrees.add(subtree);
+                        } else {
+                            copyOne(entry, entryTarget);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                failures.add(e);
+            }
+            subtrees.forEach(RecursiveAction::join);
+        }
+
+        private void copyLink(Path link, Path target) {
+            try {
+                Files.copy(link, target, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+
+        private void copyOne(Path source, Path target) {
+            try {
+                Extractor.copyFile(source, target);
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+    }
+
+    private static final class DeleteTask extends RecursiveAction {
+        private final Path directory;
+        private final Queue<IOException> failures;
+
+        DeleteTask(Path directory, Queue<IOException> failures) {
+            this.directory = directory;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            List<DeleteTask> subtrees = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        var subtree = new DeleteTask(entry, failures);
+                        subtree.fork();
+                        subtrees.add(subtree);
+                    } else {
+                        deleteOne(entry, failures);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted concurrently: nothing left to do
+            } catch (IOException e) {
+                failures.add(e);
+            }
+            // A directory can only go once its subtrees are gone
+            subtrees.forEach(RecursiveAction::join);
+            deleteOne(directory, failures);
+        }
+    }
+
+    private static void deleteOne(Path path, Queue<IOException> failures) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            failures.add(e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.mavenextractor.extractor;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Selects archive entries by glob patterns matched against the full entry path.
+ * <p>
+ * An entry is accepted if it matches at least one include pattern (or no includes are given)
+ * and no exclude pattern. Globs support {@code *} (within one directory), {@code ?},
+ * {@code **} (across directories), {@code **}{@code /} (zero or more directories),
+ * {@code [abc]} character classes (negated by a leading {@code !} or {@code ^}) and
+ * {@code {a,b}} alternatives.
+ */
+public final class EntryFilter {
+
+    /** Accepts every entry. */
+    public static final EntryFilter ALL = new EntryFilter(List.of(), List.of());
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final List<Pattern> includePatterns;
+    private final List<Pattern> excludePatterns;
+
+    private EntryFilter(List<String> includes, List<String> excludes) {
+        this.includes = List.copyOf(includes);
+        this.excludes = List.copyOf(excludes);
+        this.includePatterns = this.includes.stream().map(EntryFilter::compile).toList();
+        this.excludePatterns = this.excludes.stream().map(EntryFilter::compile).toList();
+    }
+
+    /**
+     * Creates a filter from include and exclude globs.
+     *
+     * @throws IllegalArgumentException if a glob is malformed
+     */
+    public static EntryFilter of(List<String> includes, List<String> excludes) {
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return ALL;
+        }
+        return new EntryFilter(includes, excludes);
+    }
+
+    /**
+     * @return true if every entry is accepted
+     */
+    public boolean acceptsAll() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    /**
+     * @param name the entry path as stored in the archive, using {@code /} separators
+     */
+    public boolean accepts(String name) {
+        if (!includePatterns.isEmpty() && includePatterns.stream().noneMatch(p -> p.matcher(name).matches())) {
+            return false;
+        }
+        return excludePatterns.stream().noneMatch(p -> p.matcher(name).matches());
+    }
+
+    /**
+     * Translates a glob into an anchored regular expression.
+     */
+    static Pattern compile(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() * 2);
+        int braces = 0;
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*' -> {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            // "**/" also matches no directory at all
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                }
+                case '?' -> regex.append("[^/]");
+                case '{' -> {
+                    braces++;
+                    regex.append("(?:");
+                }
+                case '}' -> {
+                    if (braces == 0) {
+                        throw new IllegalArgumentException("Unbalanced '}' in glob: " + glob);
+                    }
+                    braces--;
+                    regex.append(')');
+                }
+                case ',' -> regex.append(braces > 0 ? "|" : ",");
+                case '[' -> {
+                    int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unclosed '[' in glob: " + glob);
+                    }
+                    appendClass(regex, glob.substring(i + 1, end), glob);
+                    i = end;
+                }
+                case '\\' -> {
+                    if (i + 1 < glob.length()) {
+                        appendLiteral(regex, glob.charAt(++i));
+                    }
+                }
+                default -> appendLiteral(regex, c);
+            }
+        }
+        if (braces != 0) {
+            throw new IllegalArgumentException("Unbalanced '{' in glob: " + glob);
+        }
+        try {
+            return Pattern.compile(regex.toString());
+        } catch (PatternSyntaxException e) {
+            // E.g. a reversed range such as [z-a]
+            throw new IllegalArgumentException("Invalid glob: " + glob + " (" + e.getDescription() + ")", e);
+        }
+    }
+
+    /**
+     * Appends a {@code [...]} character class. A leading {@code !} or {@code ^} negates it and
+     * {@code -} forms ranges; every other character is a member, including those that would
+     * nest, intersect or escape in a regular expression class.
+     */
+    private static void appendClass(StringBuilder regex, String set, String glob) {
+        boolean negated = set.startsWith("!") || set.startsWith("^");
+        String members = negated ? set.substring(1) : set;
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Empty '[]' in glob: " + glob);
+        }
+        regex.append(negated ? "[^" : "[");
+        for (int i = 0; i < members.length(); i++) {
+            char c = members.charAt(i);
+            if ("\\[&^".indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        regex.append(']');
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c) {
+        if ("\\.[]{}()<>*+-=!?^$|".indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+
+    /**
+     * Canonical form, stable across runs; used in fingerprints.
+     */
+    @Override
+    public String toString() {
+        if (acceptsAll()) {
+            return "";
+        }
+        return includes.stream().map(g -> "+" + g).collect(Collectors.joining(" "))
+            + (includes.isEmpty() || excludes.isEmpty() ? "" : " ")
+            + excludes.stream().map(g -> "-" + g).collect(Collectors.joining(" "));
+    }
+}
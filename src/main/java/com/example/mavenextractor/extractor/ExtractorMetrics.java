@@ -0,0 +1,160 @@
+package com.example.mavenextractor.extractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of how extracted bytes reached the disk.
+ */
+public final class ExtractorMetrics {
+
+    private static final LongAdder storedEntries = new LongAdder();
+    private static final LongAdder storedBytes = new LongAdder();
+    private static final LongAdder inflatedEntries = new LongAdder();
+    private static final LongAdder inflatedBytes = new LongAdder();
+    private static final LongAdder channelCopiedFiles = new LongAdder();
+    private static final LongAdder channelCopiedBytes = new LongAdder();
+    private static final LongAdder filteredEntries = new LongAdder();
+    private static final LongAdder poolReuses = new LongAdder();
+    private static final LongAdder poolAllocations = new LongAdder();
+    private static final LongAdder unchangedEntries = new LongAdder();
+    private static final LongAdder directoriesCreated = new LongAdder();
+    private static final LongAdder directoryHits = new LongAdder();
+    private static final LongAdder[] archives = adders();
+    private static final LongAdder[] archiveBytes = adders();
+    private static final LongAdder[] archiveNanos = adders();
+
+    private ExtractorMetrics() {
+    }
+
+    /**
+     * Point-in-time copy of the counters.
+     *
+     * @param storedEntries STORED entries copied through a direct buffer
+     * @param storedBytes bytes of those entries
+     * @param inflatedEntries entries that had to be decompressed
+     * @param inflatedBytes uncompressed bytes of those entries
+     * @param channelCopiedFiles files copied channel-to-channel between directories
+     * @param channelCopiedBytes bytes of those files
+     * @param filteredEntries entries skipped by an entry filter
+     * @param poolReuses buffers and inflaters handed out again by {@link BufferPool}
+     * @param poolAllocations buffers and inflaters {@link BufferPool} had to create
+     * @param unchangedEntries entries skipped because the file on disk already matched
+     * @param directoriesCreated directories created while extracting
+     * @param directoryHits directory checks answered by {@link DirectoryCache}, each of which
+     *                      {@code Files.createDirectories} would have spent syscalls on
+     * @param formats per-format totals of the archives extracted, for formats that occurred
+     */
+    public record Snapshot(
+        long storedEntries,
+        long storedBytes,
+        long inflatedEntries,
+        long inflatedBytes,
+        long channelCopiedFiles,
+        long channelCopiedBytes,
+        long filteredEntries,
+        long poolReuses,
+        long poolAllocations,
+        long unchangedEntries,
+        long directoriesCreated,
+        long directoryHits,
+        List<FormatSnapshot> formats
+    ) {
+    }
+
+    /**
+     * Totals for the archives of one format.
+     *
+     * @param bytes archive file sizes
+     * @param nanos time spent extracting them, summed over archives
+     */
+    public record FormatSnapshot(ArchiveFormat format, long archives, long bytes, long nanos) {
+
+        /**
+         * @return archive bytes read per second of extraction, in MB/s
+         */
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / 1e6 / (nanos / 1e9);
+        }
+    }
+
+    public static Snapshot snapshot() {
+        return new Snapshot(
+            storedEntries.sum(),
+            storedBytes.sum(),
+            inflatedEntries.sum(),
+            inflatedBytes.sum(),
+            channelCopiedFiles.sum(),
+            channelCopiedBytes.sum(),
+            filteredEntries.sum(),
+            poolReuses.sum(),
+            poolAllocations.sum(),
+            unchangedEntries.sum(),
+            directoriesCreated.sum(),
+            directoryHits.sum(),
+            formats()
+        );
+    }
+
+    private static List<FormatSnapshot> formats() {
+        List<FormatSnapshot> formats = new ArrayList<>();
+        for (ArchiveFormat format : ArchiveFormat.values()) {
+            int i = format.ordinal();
+            if (archives[i].sum() > 0) {
+                formats.add(new FormatSnapshot(format, archives[i].sum(), archiveBytes[i].sum(), archiveNanos[i].sum()));
+            }
+        }
+        return formats;
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[ArchiveFormat.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    static void recordStored(long bytes) {
+        storedEntries.increment();
+        storedBytes.add(bytes);
+    }
+
+    static void recordInflated(long bytes) {
+        inflatedEntries.increment();
+        inflatedBytes.add(bytes);
+    }
+
+    static void recordChannelCopy(long bytes) {
+        channelCopiedFiles.increment();
+        channelCopiedBytes.add(bytes);
+    }
+
+    static void recordFiltered(long entries) {
+        filteredEntries.add(entries);
+    }
+
+    static void recordPoolReuse() {
+        poolReuses.increment();
+    }
+
+    static void recordPoolAllocation() {
+        poolAllocations.increment();
+    }
+
+    static void recordUnchanged() {
+        unchangedEntries.increment();
+    }
+
+    static void recordArchive(ArchiveFormat format, long bytes, long nanos) {
+        archives[format.ordinal()].increment();
+        archiveBytes[format.ordinal()].add(bytes);
+        archiveNanos[format.ordinal()].add(nanos);
+    }
+
+    static void recordDirectories(long created, long hits) {
+        directoriesCreated.add(created);
+        directoryHits.add(hits);
+    }
+}
@@ -0,0 +1,397 @@
+package com.example.mavenextractor.extractor;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only view of a ZIP archive's central directory, memory-mapped and parsed in place.
+ * <p>
+ * Opening an archive maps the end-of-central-directory record and the central directory,
+ * then records one {@code int} offset per entry. Entries are read through a reusable
+ * {@link Cursor} instead of a {@code ZipEntry} per entry, so scanning many archives allocates
+ * little beyond the mappings and the names that are decoded. Entry data is not mapped; read it through a {@link FileChannel}
+ * at the offset the local header points to.
+ * <p>
+ * An archive may be shared between threads as long as each thread uses its own cursor.
+ */
+public final class MappedZipArchive implements Closeable {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int EOCD_MIN_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EOCD_MIN_SIZE = 56;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int EXTENDED_TIMESTAMP_EXTRA_ID = 0x5455;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    /** General purpose flag bit marking an encrypted entry. */
+    static final int FLAG_ENCRYPTED = 0x1;
+
+    private final Path path;
+    private final long fileSize;
+    private final MappedByteBuffer directory;
+    private final int[] offsets;
+    private final long prefix;
+
+    private MappedZipArchive(Path path, long fileSize, MappedByteBuffer directory, int[] offsets, long prefix) {
+        this.path = path;
+        this.fileSize = fileSize;
+        this.directory = directory;
+        this.offsets = offsets;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Maps and indexes the central directory of a ZIP archive.
+     *
+     * @throws ZipException if the file is not a readable ZIP archive
+     */
+    public static MappedZipArchive open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < EOCD_MIN_SIZE) {
+                throw new ZipException("Not a ZIP archive: " + path);
+            }
+
+            int tailSize = (int) Math.min(size, EOCD_MIN_SIZE + MAX_COMMENT_SIZE);
+            long tailStart = size - tailSize;
+            ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, tailStart, tailSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+            int eocd = findEndOfCentralDirectory(tail, tailSize);
+            if (eocd < 0) {
+                throw new ZipException("End of central directory not found: " + path);
+            }
+
+            long directorySize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+            long directoryOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+            long prefix = 0;
+
+            int locator = eocd - ZIP64_LOCATOR_SIZE;
+            if (locator >= 0 && tail.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+                long zip64Offset = tail.getLong(locator + 8);
+                ByteBuffer zip64 = channel.map(FileChannel.MapMode.READ_ONLY, zip64Offset, ZIP64_EOCD_MIN_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                if (zip64.getInt(0) != ZIP64_EOCD_SIGNATURE) {
+                    throw new ZipException("Bad ZIP64 end of central directory: " + path);
+                }
+                directorySize = zip64.getLong(40);
+                directoryOffset = zip64.getLong(48);
+            } else {
+                // Data prepended to the archive (e.g. a launcher script) shifts every offset
+                prefix = Math.max(0, tailStart + eocd - directorySize - directoryOffset);
+                directoryOffset += prefix;
+            }
+
+            if (directoryOffset + directorySize > size || directorySize > Integer.MAX_VALUE) {
+                throw new ZipException("Central directory out of bounds: " + path);
+            }
+
+            MappedByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, directorySize);
+            directory.order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedZipArchive(path, size, directory, index(directory, path), prefix);
+        }
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail, int tailSize) {
+        for (int pos = tailSize - EOCD_MIN_SIZE; pos >= 0; pos--) {
+            if (tail.getInt(pos) == EOCD_SIGNATURE) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Walks the central directory once, recording where each header starts.
+     * The EOCD count is only a hint: it wraps at 65535 in archives that lack ZIP64 records.
+     */
+    private static int[] index(ByteBuffer directory, Path path) throws ZipException {
+        int limit = directory.limit();
+        int[] offsets = new int[Math.max(16, limit / (CENTRAL_HEADER_SIZE + 16))];
+        int count = 0;
+        int pos = 0;
+
+        while (pos + CENTRAL_HEADER_SIZE <= limit && directory.getInt(pos) == CENTRAL_HEADER_SIGNATURE) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = pos;
+            pos += CENTRAL_HEADER_SIZE
+                + Short.toUnsignedInt(directory.getShort(pos + 28))
+                + Short.toUnsignedInt(directory.getShort(pos + 30))
+                + Short.toUnsignedInt(directory.getShort(pos + 32));
+        }
+        if (pos > limit) {
+            throw new ZipException("Truncated central directory: " + path);
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * @return the archive file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return the archive file size in bytes
+     */
+    public long fileSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return the number of entries in the central directory
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns a new cursor positioned before the first entry.
+     */
+    public Cursor cursor() {
+        return new Cursor(directory.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released when it becomes unreachable; nothing else is held open
+    }
+
+    /**
+     * Flyweight over one central directory header at a time.
+     */
+    public final class Cursor {
+        private final ByteBuffer buffer;
+        private int index = -1;
+        private int offset;
+        private byte[] nameBytes = new byte[256];
+        private ByteBuffer localHeader;
+
+        private Cursor(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Advances to the next entry.
+         *
+         * @return false once all entries have been visited
+         */
+        public boolean next() {
+            if (index + 1 >= offsets.length) {
+                index = offsets.length;
+                return false;
+            }
+            moveTo(index + 1);
+            return true;
+        }
+
+        /**
+         * Positions the cursor on the entry with the given index.
+         */
+        public Cursor moveTo(int index) {
+            this.offset = offsets[index];
+            this.index = index;
+            return this;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Decodes the entry name into a new string; names are treated as UTF-8, as {@link java.util.zip.ZipFile} does.
+         */
+        public String name() {
+            int length = nameLength();
+            if (nameBytes.length < length) {
+                nameBytes = new byte[Math.max(length, nameBytes.length * 2)];
+            }
+            buffer.get(offset + CENTRAL_HEADER_SIZE, nameBytes, 0, length);
+            return new String(nameBytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Compares the end of the entry name with an ASCII suffix, without decoding it.
+         */
+        public boolean nameEndsWith(String suffix) {
+            int length = nameLength();
+            int start = offset + CENTRAL_HEADER_SIZE + length - suffix.length();
+            if (suffix.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < suffix.length(); i++) {
+                if (buffer.get(start + i) != suffix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public boolean isDirectory() {
+            int length = nameLength();
+            return length > 0 && buffer.get(offset + CENTRAL_HEADER_SIZE + length - 1) == '/';
+        }
+
+        public int flags() {
+            return Short.toUnsignedInt(buffer.getShort(offset + 8));
+        }
+
+        public boolean isEncrypted() {
+            return (flags() & FLAG_ENCRYPTED) != 0;
+        }
+
+        /**
+         * @return the compression method, e.g. {@link java.util.zip.ZipEntry#DEFLATED}
+         */
+        public int method() {
+            return Short.toUnsignedInt(buffer.getShort(offset + 10));
+        }
+
+        /**
+         * @return the last-modified time and date in MS-DOS format (time in the low 16 bits)
+         */
+        public int dosTime() {
+            return buffer.getInt(offset + 12);
+        }
+
+        /**
+         * The entry's last-modified time: the Unix time of an extended-timestamp extra field
+         * if present, else the MS-DOS time read in the local time zone, as {@code ZipEntry} does.
+         */
+        public FileTime lastModifiedTime() {
+            int extra = findExtra(EXTENDED_TIMESTAMP_EXTRA_ID);
+            if (extra >= 0 && Short.toUnsignedInt(buffer.getShort(extra + 2)) >= 5 && (buffer.get(extra + 4) & 1) != 0) {
+                return FileTime.from(buffer.getInt(extra + 5), TimeUnit.SECONDS);
+            }
+            // Out-of-range fields (day 31 in a 30-day month, second 60, ...) roll over into the
+            // next unit, as the lenient fallback of ZipEntry does, instead of failing
+            int dos = dosTime();
+            var time = LocalDateTime.of(((dos >> 25) & 0x7F) + 1980, 1, 1, 0, 0)
+                .plusMonths(((dos >> 21) & 0x0F) - 1)
+                .plusDays(((dos >> 16) & 0x1F) - 1)
+                .plusHours((dos >> 11) & 0x1F)
+                .plusMinutes((dos >> 5) & 0x3F)
+                .plusSeconds((dos << 1) & 0x3E);
+            return FileTime.from(time.atZone(ZoneId.systemDefault()).toInstant());
+        }
+
+        public long crc() {
+            return Integer.toUnsignedLong(buffer.getInt(offset + 16));
+        }
+
+        public long compressedSize() throws IOException {
+            long value = Integer.toUnsignedLong(buffer.getInt(offset + 20));
+            return value == ZIP64_MAGIC ? zip64Field(1) : value;
+        }
+
+        public long size() throws IOException {
+            long value = Integer.toUnsignedLong(buffer.getInt(offset + 24));
+            return value == ZIP64_MAGIC ? zip64Field(0) : value;
+        }
+
+        /**
+         * @return the absolute file offset of the entry's local header
+         * @throws ZipException if the entry's ZIP64 extra field is missing or truncated
+         */
+        public long localHeaderOffset() throws IOException {
+            long value = Integer.toUnsignedLong(buffer.getInt(offset + 42));
+            return (value == ZIP64_MAGIC ? zip64Field(2) : value) + prefix;
+        }
+
+        /**
+         * Reads the entry's local header to find where its data starts; the local name and
+         * extra field lengths may differ from those in the central directory.
+         *
+         * @param channel an open channel on this archive
+         * @return the absolute file offset of the entry data
+         */
+        public long dataOffset(FileChannel channel) throws IOException {
+            if (localHeader == null) {
+                localHeader = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            long headerOffset = localHeaderOffset();
+            localHeader.clear();
+            while (localHeader.hasRemaining()) {
+                if (channel.read(localHeader, headerOffset + localHeader.position()) < 0) {
+                    throw new EOFException("Truncated local header: " + name());
+                }
+            }
+            if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+                throw new ZipException("Bad local header signature: " + name());
+            }
+            int nameLength = Short.toUnsignedInt(localHeader.getShort(26));
+            int extraLength = Short.toUnsignedInt(localHeader.getShort(28));
+            return headerOffset + LOCAL_HEADER_SIZE + nameLength + extraLength;
+        }
+
+        private int nameLength() {
+            return Short.toUnsignedInt(buffer.getShort(offset + 28));
+        }
+
+        /**
+         * Reads a value from the ZIP64 extra field, which holds only the fields whose
+         * header value is 0xFFFFFFFF, in the order size, compressed size, local header offset.
+         *
+         * @throws ZipException if the field is missing or truncated
+         */
+        private long zip64Field(int field) throws IOException {
+            int pos = findExtra(ZIP64_EXTRA_ID);
+            if (pos >= 0) {
+                int length = Short.toUnsignedInt(buffer.getShort(pos + 2));
+                int valuePos = pos + 4;
+                int[] headerOffsets = {24, 20, 42};
+                for (int i = 0; i < field; i++) {
+                    if (Integer.toUnsignedLong(buffer.getInt(offset + headerOffsets[i])) == ZIP64_MAGIC) {
+                        valuePos += 8;
+                    }
+                }
+                if (valuePos + 8 <= pos + 4 + length) {
+                    return buffer.getLong(valuePos);
+                }
+            }
+            throw new ZipException("Missing ZIP64 extra field in " + path + " entry " + name());
+        }
+
+        /**
+         * @return the buffer position of the central-directory extra field with the given id, or -1
+         */
+        private int findExtra(int id) {
+            int extraStart = offset + CENTRAL_HEADER_SIZE + nameLength();
+            int extraEnd = extraStart + Short.toUnsignedInt(buffer.getShort(offset + 30));
+
+            for (int pos = extraStart; pos + 4 <= extraEnd; ) {
+                int length = Short.toUnsignedInt(buffer.getShort(pos + 2));
+                if (Short.toUnsignedInt(buffer.getShort(pos)) == id) {
+                    return pos + 4 + length <= extraEnd ? pos : -1;
+                }
+                pos += 4 + length;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.mavenextractor.extractor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a multi-member gzip file (e.g. {@code bgzip} output or concatenated {@code .gz} files)
+ * with several threads, returning the data in order.
+ * <p>
+ * The mapped file is cut into chunks of about {@link #CHUNK_SIZE} compressed bytes, each starting
+ * at the first plausible member header in its range. Chunks are inflated speculatively on the
+ * executor, a bounded number ahead of the reader. A chunk's output is only used if the chunk
+ * starts exactly where the previous one ended, which rules out header look-alikes inside
+ * compressed data; ranges that did not verify, failed, or would buffer too much are inflated
+ * on the reading thread instead, streaming.
+ * <p>
+ * Output inflated ahead of the readers is charged to one budget shared by all streams, a
+ * quarter of the maximum heap. No chunk is submitted while it is spent, except one per stream
+ * so every stream makes progress, and a chunk that would overdraw it is left to its reader.
+ */
+final class ParallelGzipInputStream extends InputStream {
+
+    /** Compressed bytes per speculatively inflated chunk. */
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    /** Output that all streams together may buffer ahead of their readers. */
+    private static final long OUTPUT_BUDGET = Runtime.getRuntime().maxMemory() / 4;
+
+    /** Output currently buffered ahead of the readers of all streams. */
+    private static final AtomicLong BUFFERED = new AtomicLong();
+
+    private static final int HEADER_MIN_SIZE = 10;
+    private static final int TRAILER_SIZE = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+    private static final int RESERVED_FLAGS = 0xE0;
+
+    private final ByteBuffer data;
+    private final int size;
+    private final ExecutorService executor;
+    private final int window;
+    private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+
+    /** Offset of the next chunk boundary to submit, or {@code size} once all are submitted. */
+    private int nextChunkStart;
+    /** Offset of the member that the output returned so far ends before. */
+    private int expected;
+    private final Deque<byte[]> ready = new ArrayDeque<>();
+    private byte[] current;
+    private int currentPosition;
+    private MemberDecoder inline;
+    private boolean eof;
+    private volatile boolean closed;
+
+    private ParallelGzipInputStream(ByteBuffer data, ExecutorService executor, int window) {
+        this.data = data;
+        this.size = data.capacity();
+        this.executor = executor;
+        this.window = window;
+    }
+
+    /**
+     * Opens a gzip file for parallel decompression if it is worth it: it must fit one mapping
+     * and contain more than one member.
+     *
+     * @return the stream, or null to decompress sequentially
+     */
+    static ParallelGzipInputStream open(Path path, ExecutorService executor, int parallelism) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (!isMemberHeader(data, 0) || nextMemberHeader(data, 1) >= data.capacity()) {
+            return null;
+        }
+        return new ParallelGzipInputStream(data, executor, parallelism + 1);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (current != null) {
+                if (currentPosition < current.length) {
+                    int n = Math.min(len, current.length - currentPosition);
+                    System.arraycopy(current, currentPosition, b, off, n);
+                    currentPosition += n;
+                    return n;
+                }
+                BUFFERED.addAndGet(-current.length);
+                current = null;
+            }
+            if (!ready.isEmpty()) {
+                current = ready.poll();
+                currentPosition = 0;
+                continue;
+            }
+            if (inline != null) {
+                int n = inline.read(b, off, len);
+                if (n >= 0) {
+                    return n;
+                }
+                expected = inline.end();
+                eof = inline.reachedGarbage();
+                inline.close();
+                inline = null;
+                continue;
+            }
+            if (eof || !advance()) {
+                eof = true;
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Moves on to the next chunk: takes its speculative output if it verifies,
+     * or starts inflating its range on this thread.
+     *
+     * @return false at the end of the data
+     */
+    private boolean advance() throws IOException {
+        while (true) {
+            submitAhead();
+            Future<Chunk> next = pending.poll();
+            if (next == null) {
+                if (expected < size && isMemberHeader(data, expected)) {
+                    inline = new MemberDecoder(data, expected, size);
+                    return true;
+                }
+                return false;
+            }
+
+            Chunk chunk = await(next);
+            if (chunk.limit() <= expected) {
+                BUFFERED.addAndGet(-chunk.bytes());
+                continue; // covered by a member that began before this chunk
+            }
+            if (chunk.start() == expected && chunk.output() != null) {
+                ready.addAll(chunk.output());
+                expected = chunk.end();
+                if (chunk.reachedGarbage()) {
+                    eof = true;
+                }
+                return true;
+            }
+            BUFFERED.addAndGet(-chunk.bytes());
+            inline = new MemberDecoder(data, expected, chunk.limit());
+            return true;
+        }
+    }
+
+    private void submitAhead() {
+        while (pending.size() < window && nextChunkStart < size
+            && (pending.isEmpty() || BUFFERED.get() < OUTPUT_BUDGET)) {
+            int start = nextChunkStart;
+            int limit = start + CHUNK_SIZE >= size ? size : nextMemberHeader(data, start + CHUNK_SIZE);
+            nextChunkStart = limit;
+            pending.add(executor.submit(() -> inflateChunk(start, limit)));
+        }
+    }
+
+    private Chunk inflateChunk(int start, int limit) {
+        List<byte[]> output = new ArrayList<>();
+        long total = 0;
+        try (var decoder = new MemberDecoder(data, start, limit)) {
+            while (true) {
+                if (closed) {
+                    BUFFERED.addAndGet(-total);
+                    return new Chunk(start, limit, -1, null, false, 0);
+                }
+                byte[] block = new byte[BufferPool.BUFFER_SIZE];
+                int filled = 0;
+                int n;
+                while (filled < block.length && (n = decoder.read(block, filled, block.length - filled)) > 0) {
+                    filled += n;
+                }
+                if (filled > 0) {
+                    output.add(filled == block.length ? block : Arrays.copyOf(block, filled));
+                    total += filled;
+                    if (BUFFERED.addAndGet(filled) > OUTPUT_BUDGET) {
+                        BUFFERED.addAndGet(-total);
+                        return new Chunk(start, limit, -1, null, false, 0);
+                    }
+                }
+                if (filled < block.length) {
+                    return new Chunk(start, limit, decoder.end(), output, decoder.reachedGarbage(), total);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not a member boundary after all, or corrupt: the reading thread decides
+            BUFFERED.addAndGet(-total);
+            return new Chunk(start, limit, -1, null, false, 0);
+        }
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Gzip decompression interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Gzip decompression failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops speculative work and returns everything this stream still holds to the budget.
+     * Chunks already running stop at their next block, so waiting for them is brief.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        boolean interrupted = false;
+        for (Future<Chunk> future : pending) {
+            if (future.cancel(false)) {
+                continue;
+            }
+            while (true) {
+                try {
+                    BUFFERED.addAndGet(-future.get().bytes());
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        pending.clear();
+        long held = current != null ? current.length : 0;
+        for (byte[] block : ready) {
+            held += block.length;
+        }
+        BUFFERED.addAndGet(-held);
+        current = null;
+        ready.clear();
+        if (inline != null) {
+            inline.close();
+            inline = null;
+        }
+        eof = true;
+    }
+
+    /**
+     * Output of one speculatively inflated chunk.
+     *
+     * @param start offset the chunk was decoded from
+     * @param limit offset of the next chunk
+     * @param end offset after the chunk's last member
+     * @param output decompressed blocks, or null if the chunk must be decoded by the reader
+     * @param reachedGarbage whether non-gzip data followed the last member
+     * @param bytes size of the output, charged to the shared budget until it is read or dropped
+     */
+    private record Chunk(int start, int limit, int end, List<byte[]> output, boolean reachedGarbage, long bytes) {
+    }
+
+    /**
+     * First offset at or after {@code from} that looks like a gzip member header, or the data size.
+     */
+    static int nextMemberHeader(ByteBuffer data, int from) {
+        for (int i = from; i + HEADER_MIN_SIZE <= data.capacity(); i++) {
+            if (isMemberHeader(data, i)) {
+                return i;
+            }
+        }
+        return data.capacity();
+    }
+
+    /**
+     * Checks magic, method, reserved flags, compression hint and OS byte: a combination that is
+     * vanishingly rare inside DEFLATE data.
+     */
+    static boolean isMemberHeader(ByteBuffer data, int offset) {
+        if (offset + HEADER_MIN_SIZE > data.capacity()) {
+            return false;
+        }
+        if (data.get(offset) != (byte) 0x1f || data.get(offset + 1) != (byte) 0x8b || data.get(offset + 2) != 8) {
+            return false;
+        }
+        int flags = data.get(offset + 3) & 0xFF;
+        int extraFlags = data.get(offset + 8) & 0xFF;
+        int os = data.get(offset + 9) & 0xFF;
+        return (flags & RESERVED_FLAGS) == 0
+            && (extraFlags == 0 || extraFlags == 2 || extraFlags == 4)
+            && (os <= 13 || os == 255);
+    }
+
+    /**
+     * Streams the decompressed data of the consecutive members starting at {@code start},
+     * up to the first member that starts at or after {@code limit}. Non-gzip data after
+     * a member ends the stream, as {@code gzip} itself treats trailing garbage.
+     */
+    private static final class MemberDecoder implements AutoCloseable {
+        private final ByteBuffer data;
+        private final int start;
+        private final int limit;
+        private final CRC32 crc = new CRC32();
+        private Inflater inflater;
+        private int position;
+        private int memberDataStart;
+        private boolean inMember;
+        private boolean reachedGarbage;
+
+        MemberDecoder(ByteBuffer data, int start, int limit) {
+            this.data = data;
+            this.start = start;
+            this.limit = limit;
+            this.position = start;
+        }
+
+        int read(byte[] b, int off, int len) throws IOException {
+            while (true) {
+                if (!inMember && !startMember()) {
+                    return -1;
+                }
+                int n;
+                try {
+                    n = inflater.inflate(b, off, len);
+                } catch (DataFormatException e) {
+                    throw new ZipException("Corrupt gzip data at offset " + memberDataStart + ": " + e.getMessage());
+                }
+                if (n > 0) {
+                    crc.update(b, off, n);
+                    return n;
+                }
+                if (inflater.finished()) {
+                    finishMember();
+                } else if (inflater.needsInput()) {
+                    throw new EOFException("Truncated gzip member at offset " + memberDataStart);
+                } else if (inflater.needsDictionary()) {
+                    throw new ZipException("Gzip member requires a preset dictionary");
+                }
+            }
+        }
+
+        /**
+         * @return false if no member starts at the current position within the limit
+         */
+        private boolean startMember() throws IOException {
+            if (position >= limit || position >= data.capacity()) {
+                return false;
+            }
+            if (!isMemberHeader(data, position)) {
+                if (position == start) {
+                    throw new ZipException("No gzip member at offset " + position);
+                }
+                reachedGarbage = true;
+                return false;
+            }
+
+            int flags = data.get(position + 3) & 0xFF;
+            int p = position + HEADER_MIN_SIZE;
+            if ((flags & FEXTRA) != 0) {
+                p += 2 + (data.getShort(checkAvailable(p, 2)) & 0xFFFF);
+            }
+            if ((flags & FNAME) != 0) {
+                p = skipZeroTerminated(p);
+            }
+            if ((flags & FCOMMENT) != 0) {
+                p = skipZeroTerminated(p);
+            }
+            if ((flags & FHCRC) != 0) {
+                p += 2;
+            }
+            checkAvailable(p, 0);
+
+            if (inflater == null) {
+                inflater = BufferPool.acquireInflater();
+            } else {
+                inflater.reset();
+            }
+            inflater.setInput(data.slice(p, data.capacity() - p));
+            crc.reset();
+            memberDataStart = p;
+            inMember = true;
+            return true;
+        }
+
+        private void finishMember() throws IOException {
+            int trailer = checkAvailable(memberDataStart + (int) inflater.getBytesRead(), TRAILER_SIZE);
+            if (data.getInt(trailer) != (int) crc.getValue()) {
+                throw new ZipException("Gzip CRC mismatch in member at offset " + memberDataStart);
+            }
+            if (data.getInt(trailer + 4) != (int) inflater.getBytesWritten()) {
+                throw new ZipException("Gzip size mismatch in member at offset " + memberDataStart);
+            }
+            position = trailer + TRAILER_SIZE;
+            inMember = false;
+        }
+
+        private int skipZeroTerminated(int p) throws EOFException {
+            while (data.get(checkAvailable(p, 1)) != 0) {
+                p++;
+            }
+            return p + 1;
+        }
+
+        private int checkAvailable(int p, int length) throws EOFException {
+            if (p + length > data.capacity()) {
+                throw new EOFException("Truncated gzip member at offset " + position);
+            }
+            return p;
+        }
+
+        /**
+         * @return offset after the last member read
+         */
+        int end() {
+            return position;
+        }
+
+        boolean reachedGarbage() {
+            return reachedGarbage;
+        }
+
+        @Override
+        public void close() {
+            if (inflater != null) {
+                BufferPool.releaseInflater(inflater);
+                inflater = null;
+            }
+        }
+    }
+}
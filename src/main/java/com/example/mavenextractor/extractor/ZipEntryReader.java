@@ -0,0 +1,195 @@
+package com.example.mavenextractor.extractor;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Reads entry data of one ZIP archive through its own {@link FileChannel}.
+ * STORED entries are copied and DEFLATED entries inflated between direct buffers, so entry
+ * data never passes through the heap; other methods are rejected.
+ * Buffers and the inflater come from {@link BufferPool} and go back to it on close. Every
+ * entry written is checked against the size and CRC-32 of the central directory.
+ * <p>
+ * When skipping unchanged entries, an existing file whose size matches the entry and whose
+ * modification time or CRC-32 does too is left alone, and files that are written get the
+ * entry's modification time, so that a repeated extraction rewrites nothing.
+ * Not thread-safe: every range of a parallel extraction uses its own reader.
+ */
+final class ZipEntryReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer input;
+    private final ByteBuffer output;
+    private final Inflater inflater;
+    private final boolean skipUnchanged;
+    private final CRC32 crc = new CRC32();
+
+    ZipEntryReader(Path zipPath, boolean skipUnchanged) throws IOException {
+        this.skipUnchanged = skipUnchanged;
+        this.channel = FileChannel.open(zipPath, StandardOpenOption.READ);
+        this.input = BufferPool.acquireDirect();
+        this.output = BufferPool.acquireDirect();
+        this.inflater = BufferPool.acquireInflater();
+    }
+
+    /**
+     * Writes the uncompressed content of an entry to the target file, replacing it.
+     */
+    void extract(MappedZipArchive.Cursor entry, Path target) throws IOException {
+        if (entry.isEncrypted()) {
+            throw new ZipException("Encrypted entry: " + entry.name());
+        }
+        if (skipUnchanged && isUnchanged(entry, target)) {
+            ExtractorMetrics.recordUnchanged();
+            return;
+        }
+        switch (entry.method()) {
+            case ZipEntry.STORED -> transfer(entry, target);
+            case ZipEntry.DEFLATED -> inflate(entry, target);
+            default -> throw new ZipException("Unsupported compression method " + entry.method() + ": " + entry.name());
+        }
+        if (skipUnchanged) {
+            Files.setLastModifiedTime(target, entry.lastModifiedTime());
+        }
+    }
+
+    /**
+     * Compares an existing file with the entry: by size, then by modification time, and only
+     * if the times differ by the CRC-32 of its content.
+     */
+    private boolean isUnchanged(MappedZipArchive.Cursor entry, Path target) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(target, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (!attributes.isRegularFile() || attributes.size() != entry.size()) {
+            return false;
+        }
+        if (attributes.lastModifiedTime().equals(entry.lastModifiedTime())) {
+            return true;
+        }
+
+        crc.reset();
+        try (var in = FileChannel.open(target, StandardOpenOption.READ)) {
+            while (in.read(input.clear()) >= 0) {
+                crc.update(input.flip());
+            }
+        }
+        return crc.getValue() == entry.crc();
+    }
+
+    /**
+     * Copies a STORED entry through a direct buffer, computing its CRC-32 on the way, so the
+     * data is read once and never reaches the heap.
+     */
+    private void transfer(MappedZipArchive.Cursor entry, Path target) throws IOException {
+        long size = entry.compressedSize();
+        if (size != entry.size()) {
+            throw new ZipException("Stored entry has different compressed and uncompressed sizes: " + entry.name());
+        }
+        long position = entry.dataOffset(channel);
+        long end = position + size;
+
+        crc.reset();
+        try (var out = Extractor.openTarget(target)) {
+            while (position < end) {
+                input.clear().limit((int) Math.min(input.capacity(), end - position));
+                int read = channel.read(input, position);
+                if (read < 0) {
+                    throw new EOFException("Truncated entry: " + entry.name());
+                }
+                position += read;
+                input.flip().mark();
+                crc.update(input);
+                input.reset();
+                while (input.hasRemaining()) {
+                    out.write(input);
+                }
+            }
+        }
+        verify(entry, size);
+        ExtractorMetrics.recordStored(size);
+    }
+
+    private void inflate(MappedZipArchive.Cursor entry, Path target) throws IOException {
+        long position = entry.dataOffset(channel);
+        long remaining = entry.compressedSize();
+        long written = 0;
+
+        inflater.reset();
+        crc.reset();
+        try (var out = Extractor.openTarget(target)) {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    if (remaining <= 0) {
+                        throw new EOFException("Truncated entry: " + entry.name());
+                    }
+                    input.clear().limit((int) Math.min(input.capacity(), remaining));
+                    int read = channel.read(input, position);
+                    if (read < 0) {
+                        throw new EOFException("Truncated entry: " + entry.name());
+                    }
+                    position += read;
+                    remaining -= read;
+                    inflater.setInput(input.flip());
+                }
+
+                output.clear();
+                int inflated = inflater.inflate(output);
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    throw new ZipException("Entry requires a preset dictionary: " + entry.name());
+                }
+                output.flip().mark();
+                crc.update(output);
+                output.reset();
+                while (output.hasRemaining()) {
+                    out.write(output);
+                }
+                written += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid DEFLATE data in " + entry.name() + ": " + e.getMessage());
+        }
+        verify(entry, written);
+        ExtractorMetrics.recordInflated(written);
+    }
+
+    /**
+     * Checks what was written against the size and CRC-32 recorded in the central directory,
+     * as {@code ZipInputStream} does, so a corrupt or truncated archive fails its extraction.
+     */
+    private void verify(MappedZipArchive.Cursor entry, long written) throws IOException {
+        if (written != entry.size()) {
+            throw new ZipException("Invalid entry size (expected " + entry.size() + " but got " + written
+                + " bytes): " + entry.name());
+        }
+        if (crc.getValue() != entry.crc()) {
+            throw new ZipException(String.format("Invalid entry CRC (expected 0x%x but got 0x%x): %s",
+                entry.crc(), crc.getValue(), entry.name()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        BufferPool.releaseDirect(input);
+        BufferPool.releaseDirect(output);
+        BufferPool.releaseInflater(inflater);
+        channel.close();
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.mavenextractor.journal;
+
+import com.example.mavenextractor.model.Dependency;
+import com.example.mavenextractor.model.ExtractionOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Append-only journal of completed dependencies, kept next to the output directory.
+ * <p>
+ * Each line records one dependency as {@code key<TAB>OUTCOME<TAB>output}. Lines are
+ * written as soon as a dependency finishes, so a run killed half-way can be resumed
+ * by replaying the journal and processing only what is missing.
+ */
+public class RunJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunJournal.class);
+
+    private static final String NO_OUTPUT = "-";
+
+    /**
+     * A replayed journal line.
+     * Uses JDK 21 record for immutable data carrier.
+     */
+    public record Entry(
+        String key,
+        ExtractionOutcome outcome,
+        Optional<Path> output
+    ) {
+        /**
+         * Returns true if this entry describes finished work whose output is still on disk.
+         * Skipped and failed dependencies are always retried.
+         */
+        public boolean isComplete() {
+            return switch (outcome) {
+                case SOURCE_EXTRACTED, DECOMPILED, UNCHANGED -> output.isPresent() && Files.exists(output.get());
+                case SKIPPED, FAILED, CANCELLED, NOT_STARTED -> false;
+            };
+        }
+    }
+
+    private final Path journalPath;
+    private final FileChannel channel;
+    private final Map<String, Entry> completed;
+
+    private RunJournal(Path journalPath, FileChannel channel, Map<String, Entry> completed) {
+        this.journalPath = journalPath;
+        this.channel = channel;
+        this.completed = completed;
+    }
+
+    /**
+     * Returns the journal location for an output directory, e.g. {@code third.journal} next to {@code third}.
+     */
+    public static Path pathFor(Path outputDir) {
+        Path absolute = outputDir.toAbsolutePath().normalize();
+        return absolute.resolveSibling(absolute.getFileName() + ".journal");
+    }
+
+    /**
+     * Opens a journal for writing.
+     *
+     * @param journalPath the journal file
+     * @param resume if true, replay existing entries and append; otherwise start a fresh journal
+     * @return the opened journal
+     * @throws IOException if the journal cannot be read or opened
+     */
+    public static RunJournal open(Path journalPath, boolean resume) throws IOException {
+        Map<String, Entry> completed = new HashMap<>();
+        if (resume && Files.exists(journalPath)) {
+            for (Entry entry : replay(journalPath).values()) {
+                if (entry.isComplete()) {
+                    completed.put(entry.key(), entry);
+                }
+            }
+            logger.info("Journal {}: {} completed dependencies to resume from", journalPath, completed.size());
+        }
+
+        FileChannel channel = resume
+            ? FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)
+            : FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new RunJournal(journalPath, channel, completed);
+    }
+
+    /**
+     * Reads all well-formed entries of a journal; later lines win over earlier ones.
+     * A torn last line from a killed run is ignored.
+     */
+    private static Map<String, Entry> replay(Path journalPath) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 3) {
+                continue;
+            }
+            try {
+                ExtractionOutcome outcome = ExtractionOutcome.valueOf(fields[1]);
+                Optional<Path> output = NO_OUTPUT.equals(fields[2])
+                    ? Optional.empty()
+                    : Optional.of(Paths.get(fields[2]));
+                entries.put(fields[0], new Entry(fields[0], outcome, output));
+            } catch (IllegalArgumentException e) {
+                logger.debug("Ignoring malformed journal line: {}", line);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the replayed entry of a dependency if it completed in an earlier run.
+     */
+    public Optional<Entry> completed(Dependency dependency) {
+        return Optional.ofNullable(completed.get(dependency.key()));
+    }
+
+    /**
+     * Appends the outcome of a dependency. Safe to call from any thread.
+     *
+     * @param dependency the finished dependency
+     * @param outcome its outcome
+     * @param output the directory it produced, or null if none
+     */
+    public synchronized void record(Dependency dependency, ExtractionOutcome outcome, Path output) {
+        String line = dependency.key() + "\t" + outcome + "\t"
+            + (output != null ? output.toAbsolutePath() : NO_OUTPUT) + "\n";
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write journal entry for {} to {}", dependency.key(), journalPath, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.mavenextractor.model;
+
+/**
+ * Final outcome of processing a single dependency.
+ */
+public enum ExtractionOutcome {
+    SOURCE_EXTRACTED,
+    DECOMPILED,
+    SKIPPED,
+    FAILED,
+
+    /**
+     * The output from an earlier run still matches the artifact and settings; nothing was written.
+     */
+    UNCHANGED,
+
+    /**
+     * Work had started when the run deadline was reached; partial output was removed.
+     */
+    CANCELLED,
+
+    /**
+     * The run deadline was reached before any work started.
+     */
+    NOT_STARTED
+}
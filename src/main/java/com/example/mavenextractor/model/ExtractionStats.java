@@ -9,40 +9,101 @@ public record ExtractionStats(
     int sourceExtracted,
     int decompiled,
     int skipped,
-    int failed
+    int failed,
+    int unchanged,
+    int cancelled,
+    int notStarted
 ) {
     /**
      * Creates a new stats with incremented source extracted count.
      */
     public ExtractionStats incrementSourceExtracted() {
-        return new ExtractionStats(total, sourceExtracted + 1, decompiled, skipped, failed);
+        return new ExtractionStats(total, sourceExtracted + 1, decompiled, skipped, failed, unchanged, cancelled,
+            notStarted);
     }
 
     /**
      * Creates a new stats with incremented decompiled count.
      */
     public ExtractionStats incrementDecompiled() {
-        return new ExtractionStats(total, sourceExtracted, decompiled + 1, skipped, failed);
+        return new ExtractionStats(total, sourceExtracted, decompiled + 1, skipped, failed, unchanged, cancelled,
+            notStarted);
     }
 
     /**
      * Creates a new stats with incremented skipped count.
      */
     public ExtractionStats incrementSkipped() {
-        return new ExtractionStats(total, sourceExtracted, decompiled, skipped + 1, failed);
+        return new ExtractionStats(total, sourceExtracted, decompiled, skipped + 1, failed, unchanged, cancelled,
+            notStarted);
     }
 
     /**
      * Creates a new stats with incremented failed count.
      */
     public ExtractionStats incrementFailed() {
-        return new ExtractionStats(total, sourceExtracted, decompiled, skipped, failed + 1);
+        return new ExtractionStats(total, sourceExtracted, decompiled, skipped, failed + 1, unchanged, cancelled,
+            notStarted);
+    }
+
+    /**
+     * Creates a new stats with incremented unchanged count.
+     */
+    public ExtractionStats incrementUnchanged() {
+        return new ExtractionStats(total, sourceExtracted, decompiled, skipped, failed, unchanged + 1, cancelled,
+            notStarted);
+    }
+
+    /**
+     * Creates a new stats with incremented cancelled count.
+     */
+    public ExtractionStats incrementCancelled() {
+        return new ExtractionStats(total, sourceExtracted, decompiled, skipped, failed, unchanged, cancelled + 1,
+            notStarted);
+    }
+
+    /**
+     * Creates a new stats with incremented not-started count.
+     */
+    public ExtractionStats incrementNotStarted() {
+        return new ExtractionStats(total, sourceExtracted, decompiled, skipped, failed, unchanged, cancelled,
+            notStarted + 1);
+    }
+
+    /**
+     * Creates a new stats with the counter for the given outcome incremented.
+     */
+    public ExtractionStats record(ExtractionOutcome outcome) {
+        return switch (outcome) {
+            case SOURCE_EXTRACTED -> incrementSourceExtracted();
+            case DECOMPILED -> incrementDecompiled();
+            case SKIPPED -> incrementSkipped();
+            case FAILED -> incrementFailed();
+            case UNCHANGED -> incrementUnchanged();
+            case CANCELLED -> incrementCancelled();
+            case NOT_STARTED -> incrementNotStarted();
+        };
+    }
+
+    /**
+     * Returns the number of dependencies that have an outcome.
+     */
+    public int processed() {
+        return sourceExtracted + decompiled + skipped + failed + unchanged + cancelled + notStarted;
+    }
+
+    /**
+     * Creates a new stats that counts every dependency without an outcome as not started.
+     */
+    public ExtractionStats withUnprocessedAsNotStarted() {
+        return new ExtractionStats(total, sourceExtracted, decompiled, skipped, failed, unchanged, cancelled,
+            notStarted + Math.max(0, total - processed()));
     }
 
     /**
      * Creates initial stats with given total count.
      */
     public static ExtractionStats initial(int total) {
-        return new ExtractionStats(total, 0, 0, 0, 0);
+        return new ExtractionStats(total, 0, 0, 0, 0, 0, 0, 0);
     }
 }
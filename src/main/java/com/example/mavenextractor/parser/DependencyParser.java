@@ -10,10 +10,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +32,14 @@ public class DependencyParser {
     private static final Pattern DEPENDENCY_PATTERN =
         Pattern.compile("([\\w.-]+):([\\w.-]+):(jar|war|ear|pom|aar)(?::([\\w.-]+))?:([\\w.-]+):([\\w.-]+)");
 
+    // Maven transfer log: "Downloaded from central: https://.../artifact-1.0-sources.jar (12 kB at 40 kB/s)"
+    private static final Pattern DOWNLOADED_PATTERN =
+        Pattern.compile("Downloaded from [^:]+: (\\S+-sources\\.jar)");
+
+    // Resolution summary of dependency:sources: "groupId:artifactId:jar:sources:version:scope"
+    private static final Pattern RESOLVED_SOURCES_PATTERN =
+        Pattern.compile("([\\w.-]+):([\\w.-]+):(?:jar|war|ear|aar):sources:([\\w.-]+)(?::[\\w.-]+)?");
+
     private final String mavenCommand;
     private final Path projectDir;
     private final boolean directOnly;
@@ -174,19 +185,73 @@ public class DependencyParser {
      * Downloads source JARs for all dependencies.
      */
     public void downloadSources(List<Dependency> dependencies) {
+        downloadSources(dependencies, dep -> { });
+    }
+
+    /**
+     * Downloads source JARs for all dependencies, reporting each dependency whose
+     * source JAR Maven reports as downloaded or resolved while the command is still running.
+     *
+     * @param dependencies the dependencies whose sources are wanted
+     * @param onResolved called from the output reader thread, at most once per dependency
+     */
+    public void downloadSources(List<Dependency> dependencies, Consumer<Dependency> onResolved) {
         logger.info("Downloading source JARs...");
 
+        Map<String, Dependency> byFileName = new HashMap<>();
+        Map<String, Dependency> byKey = new HashMap<>();
+        for (Dependency dep : dependencies) {
+            byFileName.put(dep.artifactId() + "-" + dep.version() + "-sources.jar", dep);
+            byKey.put(dep.key(), dep);
+        }
+        Set<String> reported = new HashSet<>();
+
+        Consumer<String> listener = line -> {
+            Dependency dep = null;
+
+            Matcher downloaded = DOWNLOADED_PATTERN.matcher(line);
+            if (downloaded.find()) {
+                String url = downloaded.group(1);
+                Dependency candidate = byFileName.get(url.substring(url.lastIndexOf('/') + 1));
+                if (candidate != null && url.endsWith("/" + sourcesRepositoryPath(candidate))) {
+                    dep = candidate;
+                }
+            } else {
+                Matcher resolved = RESOLVED_SOURCES_PATTERN.matcher(line);
+                if (resolved.find()) {
+                    dep = byKey.get(resolved.group(1) + ":" + resolved.group(2) + ":" + resolved.group(3));
+                }
+            }
+
+            if (dep != null && reported.add(dep.key())) {
+                logger.debug("Sources resolved: {}", dep.key());
+                onResolved.accept(dep);
+            }
+        };
+
         List<String> cmd = List.of(mavenCommand, "dependency:sources");
 
         try {
-            var result = ProcessExecutor.execute(cmd, projectDir, java.time.Duration.ofMinutes(10));
+            var result = ProcessExecutor.execute(cmd, projectDir, java.time.Duration.ofMinutes(10), listener);
             if (result.exitCode() == 0) {
                 logger.info("Source JARs download completed");
             } else {
                 logger.warn("Source JARs download failed: {}", result.stderr());
             }
-        } catch (IOException | InterruptedException | TimeoutException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Source JARs download interrupted");
+        } catch (IOException | TimeoutException e) {
             logger.warn("Failed to download sources", e);
         }
     }
+
+    /**
+     * Returns the repository-relative path of a dependency's source JAR,
+     * e.g. {@code org/example/lib/1.0/lib-1.0-sources.jar}.
+     */
+    private static String sourcesRepositoryPath(Dependency dep) {
+        return dep.groupId().replace('.', '/') + "/" + dep.artifactId() + "/" + dep.version() + "/"
+            + dep.artifactId() + "-" + dep.version() + "-sources.jar";
+    }
 }
@@ -0,0 +1,74 @@
+package com.example.mavenextractor.pipeline;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Groups items waiting for the decompile stage into batches for one decompiler run each.
+ * <p>
+ * Batches are formed when a decompile worker becomes free, from whatever has queued up since,
+ * so nothing waits for a batch to fill: while workers keep up, items go through one at a time,
+ * and batches grow only when items back up behind busy workers. A batch holds at most
+ * {@code maxItems} items and, unless it is a single larger JAR, at most
+ * {@value #MAX_BATCH_BYTES} bytes of JARs, so batches take roughly equally long.
+ */
+final class DecompileBatcher {
+
+    /** Total binary JAR size above which a batch is closed. */
+    static final long MAX_BATCH_BYTES = 16L * 1024 * 1024;
+
+    private record Waiting(WorkItem item, long size) {
+    }
+
+    private final int maxItems;
+    private final Deque<Waiting> waiting = new ArrayDeque<>();
+
+    DecompileBatcher(int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Queues an item whose binary JAR is to be decompiled.
+     */
+    void add(WorkItem item) {
+        long size = item.location().binaryPath().map(DecompileBatcher::sizeOf).orElse(0L);
+        synchronized (waiting) {
+            waiting.addLast(new Waiting(item, size));
+        }
+    }
+
+    /**
+     * Takes the next batch in submission order.
+     *
+     * @return the batch, empty if earlier batches already took every waiting item
+     */
+    List<WorkItem> next() {
+        List<WorkItem> batch = new ArrayList<>();
+        long bytes = 0;
+        synchronized (waiting) {
+            while (batch.size() < maxItems && !waiting.isEmpty()) {
+                Waiting next = waiting.peekFirst();
+                if (!batch.isEmpty() && bytes + next.size() > MAX_BATCH_BYTES) {
+                    break;
+                }
+                waiting.removeFirst();
+                batch.add(next.item());
+                bytes += next.size();
+            }
+        }
+        return batch;
+    }
+
+    private static long sizeOf(Path jar) {
+        try {
+            return Files.size(jar);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
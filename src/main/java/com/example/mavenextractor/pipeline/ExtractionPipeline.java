@@ -0,0 +1,253 @@
+package com.example.mavenextractor.pipeline;
+
+import com.example.mavenextractor.config.ExtractionOptions;
+import com.example.mavenextractor.model.ExtractionOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Staged locate → extract → decompile pipeline.
+ * <p>
+ * Each stage has its own worker pool and bounded queue, so slow decompilations
+ * cannot starve cheap source extractions, and the number of items held in memory
+ * stays bounded no matter how many dependencies are submitted.
+ */
+public final class ExtractionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractionPipeline.class);
+
+    /**
+     * How long running tasks get to react to cancellation before the pipeline stops waiting for them.
+     */
+    private static final Duration CANCEL_GRACE = Duration.ofSeconds(30);
+
+    /**
+     * Work performed by the individual stages.
+     */
+    public interface Handler {
+
+        /**
+         * Locates the artifacts of an item and decides where it goes next.
+         */
+        Step locate(WorkItem item);
+
+        /**
+         * Extracts the source JAR of an item.
+         */
+        ExtractionOutcome extract(WorkItem item);
+
+        /**
+         * Decompiles the binary JAR of an item.
+         */
+        ExtractionOutcome decompile(WorkItem item);
+
+        /**
+         * Decompiles the binary JARs of several items in one go, returning their outcomes in order.
+         * By default, the items are decompiled one by one.
+         */
+        default List<ExtractionOutcome> decompileBatch(List<WorkItem> items) {
+            return items.stream().map(this::decompile).toList();
+        }
+    }
+
+    /**
+     * Receives the final outcome of every item, exactly once per item. May be called from any thread.
+     */
+    @FunctionalInterface
+    public interface CompletionListener {
+        void onComplete(WorkItem item, ExtractionOutcome outcome);
+    }
+
+    private final Handler handler;
+    private final CompletionListener listener;
+
+    private final Stage locateStage;
+    private final Stage extractStage;
+    private final Stage decompileStage;
+    private final DecompileBatcher decompileBatcher;
+
+    // Items submitted but not yet completed, plus one for the open input
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final CountDownLatch drained = new CountDownLatch(1);
+
+    private final Set<WorkItem> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    public ExtractionPipeline(ExtractionOptions options, Handler handler, CompletionListener listener) {
+        this.handler = handler;
+        this.listener = listener;
+
+        boolean virtual = options.virtualThreads();
+        int locateWorkers = virtual ? options.ioConcurrency() : options.threads();
+        this.locateStage = new Stage("locate", locateWorkers, options.queueCapacity(), virtual);
+        this.extractStage = new Stage("extract", options.threads(), options.queueCapacity(), virtual);
+        this.decompileStage = new Stage("decompile", options.decompileConcurrency(), options.queueCapacity(), virtual);
+        this.decompileBatcher = options.decompileBatchSize() > 1 ? new DecompileBatcher(options.decompileBatchSize()) : null;
+
+        logger.debug("Pipeline stages: locate={}, extract={}, decompile={}, queue capacity={}",
+            locateWorkers, options.threads(), options.decompileConcurrency(), options.queueCapacity());
+    }
+
+    /**
+     * Submits an item to the locate stage, blocking while that stage is full.
+     * Once the pipeline is cancelled, items complete immediately as {@link ExtractionOutcome#NOT_STARTED}.
+     */
+    public void submit(WorkItem item) throws InterruptedException {
+        item.setPosition(submitted.incrementAndGet());
+        pending.incrementAndGet();
+        inFlight.add(item);
+
+        if (cancelled) {
+            finish(item, ExtractionOutcome.NOT_STARTED);
+            return;
+        }
+        try {
+            locateStage.submit(() -> runLocate(item));
+        } catch (RejectedExecutionException e) {
+            finish(item, ExtractionOutcome.NOT_STARTED);
+        } catch (InterruptedException | RuntimeException e) {
+            finish(item, ExtractionOutcome.NOT_STARTED);
+            throw e;
+        }
+    }
+
+    /**
+     * Signals that no more items will be submitted, waits for all submitted items
+     * to complete and shuts the stages down.
+     */
+    public void awaitCompletion() throws InterruptedException {
+        complete();
+        drained.await();
+
+        if (cancelled) {
+            for (Stage stage : List.of(locateStage, extractStage, decompileStage)) {
+                if (!stage.awaitTermination(CANCEL_GRACE)) {
+                    logger.warn("Some workers did not stop within {} after cancellation", CANCEL_GRACE);
+                }
+            }
+        } else {
+            locateStage.shutdown();
+            extractStage.shutdown();
+            decompileStage.shutdown();
+        }
+    }
+
+    /**
+     * Cancels all outstanding work. Items a stage has started complete as
+     * {@link ExtractionOutcome#CANCELLED}, queued ones as {@link ExtractionOutcome#NOT_STARTED};
+     * running workers are interrupted. Items that already finished keep their outcome.
+     */
+    public void cancel() {
+        cancelled = true;
+
+        for (WorkItem item : inFlight) {
+            finish(item, item.isStarted() ? ExtractionOutcome.CANCELLED : ExtractionOutcome.NOT_STARTED);
+        }
+
+        locateStage.cancel();
+        extractStage.cancel();
+        decompileStage.cancel();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void runLocate(WorkItem item) {
+        item.markStarted();
+        Step step = call(item, handler::locate, Step.done(ExtractionOutcome.FAILED));
+
+        try {
+            switch (step) {
+                case Step.Extract extract -> forward(extractStage, item, handler::extract);
+                case Step.Decompile decompile when decompileBatcher != null -> {
+                    decompileBatcher.add(item);
+                    decompileStage.submit(this::runDecompileBatch);
+                }
+                case Step.Decompile decompile -> forward(decompileStage, item, handler::decompile);
+                case Step.Done done -> finish(item, done.outcome());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(item, cancelled ? ExtractionOutcome.CANCELLED : ExtractionOutcome.FAILED);
+        } catch (RejectedExecutionException e) {
+            finish(item, ExtractionOutcome.CANCELLED);
+        }
+    }
+
+    private void forward(Stage stage, WorkItem item, Function<WorkItem, ExtractionOutcome> work)
+        throws InterruptedException {
+        stage.submit(() -> finish(item, call(item, work, ExtractionOutcome.FAILED)));
+    }
+
+    /**
+     * Decompiles whatever has queued up for the decompile stage. Every queued item submitted one
+     * task, so a task may find that earlier ones already took its item.
+     */
+    private void runDecompileBatch() {
+        List<WorkItem> batch = decompileBatcher.next();
+        // Items cancelled while waiting are already complete
+        batch.removeIf(WorkItem::isDone);
+        if (batch.size() <= 1) {
+            batch.forEach(item -> finish(item, call(item, handler::decompile, ExtractionOutcome.FAILED)));
+            return;
+        }
+
+        List<ExtractionOutcome> outcomes;
+        try {
+            outcomes = handler.decompileBatch(batch);
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error while decompiling a batch of {}", batch.size(), e);
+            outcomes = Collections.nCopies(batch.size(), ExtractionOutcome.FAILED);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            finish(batch.get(i), outcomes.get(i));
+        }
+    }
+
+    /**
+     * Runs stage work with the artifact in the logging context, mapping unexpected errors to a fallback.
+     */
+    private static <T> T call(WorkItem item, Function<WorkItem, T> work, T fallback) {
+        MDC.put("artifact", item.dependency().key());
+        try {
+            return work.apply(item);
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error while processing {}", item.dependency().key(), e);
+            return fallback;
+        } finally {
+            MDC.remove("artifact");
+        }
+    }
+
+    private void finish(WorkItem item, ExtractionOutcome outcome) {
+        if (!item.markDone()) {
+            // Already completed, e.g. by cancel() while its worker was still running
+            return;
+        }
+        try {
+            listener.onComplete(item, outcome);
+        } finally {
+            inFlight.remove(item);
+            complete();
+        }
+    }
+
+    private void complete() {
+        if (pending.decrementAndGet() == 0) {
+            drained.countDown();
+        }
+    }
+}
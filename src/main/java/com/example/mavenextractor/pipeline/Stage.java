@@ -0,0 +1,80 @@
+package com.example.mavenextractor.pipeline;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pipeline stage: a worker pool with a bounded queue in front of it.
+ * Submitting to a full stage blocks the caller, which propagates backpressure upstream.
+ */
+final class Stage {
+
+    private final ExecutorService executor;
+
+    // Running plus queued tasks; bounds memory regardless of how many items are waiting upstream
+    private final Semaphore slots;
+
+    // Running tasks; a fixed platform pool enforces this by itself, virtual threads need the semaphore
+    private final Semaphore workers;
+
+    Stage(String name, int workerCount, int queueCapacity, boolean virtualThreads) {
+        this.executor = virtualThreads
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-vt-", 1).factory())
+            : Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name(name + "-", 1).factory());
+        this.slots = new Semaphore(workerCount + queueCapacity);
+        this.workers = new Semaphore(workerCount);
+    }
+
+    /**
+     * Queues a task, blocking while the stage is full.
+     */
+    void submit(Runnable task) throws InterruptedException {
+        slots.acquire();
+        try {
+            executor.execute(() -> {
+                try {
+                    workers.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        workers.release();
+                    }
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued ones to finish.
+     */
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Drops queued tasks, interrupts running ones and wakes up blocked submitters,
+     * whose submissions are then rejected.
+     */
+    void cancel() {
+        executor.shutdownNow();
+        slots.release(Integer.MAX_VALUE / 2);
+    }
+
+    /**
+     * Waits up to the grace period for running tasks to react to cancellation.
+     *
+     * @return true if all tasks stopped in time
+     */
+    boolean awaitTermination(Duration grace) throws InterruptedException {
+        return executor.awaitTermination(grace.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
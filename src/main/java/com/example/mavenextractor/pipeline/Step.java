@@ -0,0 +1,40 @@
+package com.example.mavenextractor.pipeline;
+
+import com.example.mavenextractor.model.ExtractionOutcome;
+
+/**
+ * Routing decision made by the locate stage for a work item.
+ * Uses a JDK 21 sealed interface so the pipeline can switch over it exhaustively.
+ */
+public sealed interface Step {
+
+    /**
+     * The item has a source JAR and goes to the extract stage.
+     */
+    record Extract() implements Step {
+    }
+
+    /**
+     * The item only has a binary JAR and goes to the decompile stage.
+     */
+    record Decompile() implements Step {
+    }
+
+    /**
+     * The item is finished without further stages.
+     */
+    record Done(ExtractionOutcome outcome) implements Step {
+    }
+
+    static Step extract() {
+        return new Extract();
+    }
+
+    static Step decompile() {
+        return new Decompile();
+    }
+
+    static Step done(ExtractionOutcome outcome) {
+        return new Done(outcome);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.mavenextractor.pipeline;
+
+import com.example.mavenextractor.model.ArtifactLocation;
+import com.example.mavenextractor.model.Dependency;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A dependency travelling through the extraction pipeline.
+ * The artifact location is filled in by the locate stage, or earlier by the scheduler.
+ */
+public final class WorkItem {
+
+    private final Dependency dependency;
+    private final int total;
+
+    private volatile int position;
+    private volatile ArtifactLocation location;
+
+    private enum Status { QUEUED, STARTED, DONE }
+
+    private final AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
+
+    public WorkItem(Dependency dependency, int total) {
+        this.dependency = dependency;
+        this.total = total;
+    }
+
+    public Dependency dependency() {
+        return dependency;
+    }
+
+    /**
+     * Returns the 1-based submission position of this item in the run, or 0 before submission.
+     */
+    public int position() {
+        return position;
+    }
+
+    void setPosition(int position) {
+        this.position = position;
+    }
+
+    /**
+     * Returns true once any stage has started working on this item.
+     */
+    public boolean isStarted() {
+        return status.get() != Status.QUEUED;
+    }
+
+    void markStarted() {
+        status.compareAndSet(Status.QUEUED, Status.STARTED);
+    }
+
+    boolean isDone() {
+        return status.get() == Status.DONE;
+    }
+
+    /**
+     * Marks this item as done.
+     *
+     * @return true if this call finished the item, false if it was already done
+     */
+    boolean markDone() {
+        return status.getAndSet(Status.DONE) != Status.DONE;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    /**
+     * Returns the located artifacts, or {@link ArtifactLocation#notFound()} if not located yet.
+     */
+    public ArtifactLocation location() {
+        ArtifactLocation current = location;
+        return current != null ? current : ArtifactLocation.notFound();
+    }
+
+    public boolean isLocated() {
+        return location != null;
+    }
+
+    public void setLocation(ArtifactLocation location) {
+        this.location = location;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.mavenextractor.scheduler;
+
+import com.example.mavenextractor.pipeline.WorkItem;
+
+/**
+ * Estimated processing cost of a work item.
+ * Uses JDK 21 record for immutable data carrier.
+ *
+ * @param item the work item, already located
+ * @param archiveBytes size of the archive that will be processed
+ * @param entryCount number of entries in the archive's central directory
+ * @param decompile true if the artifact has to be decompiled rather than extracted
+ * @param cost relative cost in byte-equivalents
+ */
+public record CostEstimate(
+    WorkItem item,
+    long archiveBytes,
+    int entryCount,
+    boolean decompile,
+    long cost
+) {
+}
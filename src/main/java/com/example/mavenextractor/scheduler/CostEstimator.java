@@ -0,0 +1,89 @@
+package com.example.mavenextractor.scheduler;
+
+import com.example.mavenextractor.extractor.MappedZipArchive;
+import com.example.mavenextractor.model.ArtifactLocation;
+import com.example.mavenextractor.pipeline.WorkItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Estimates the cost of processing an artifact from its archive size and the
+ * entry count in the ZIP central directory, which is memory-mapped rather than read.
+ */
+public class CostEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostEstimator.class);
+
+    /**
+     * Fixed cost per archive entry (file creation, metadata), in byte-equivalents.
+     */
+    static final long ENTRY_COST = 4 * 1024;
+
+    /**
+     * Decompilation is roughly this many times more expensive than extraction per byte.
+     */
+    static final long DECOMPILE_FACTOR = 20;
+
+    /**
+     * Fixed cost of starting a decompiler JVM, in byte-equivalents.
+     */
+    static final long DECOMPILER_STARTUP_COST = 16L * 1024 * 1024;
+
+    private final boolean decompilerAvailable;
+
+    /**
+     * @param decompilerAvailable whether binary-only artifacts will be decompiled or skipped
+     */
+    public CostEstimator(boolean decompilerAvailable) {
+        this.decompilerAvailable = decompilerAvailable;
+    }
+
+    /**
+     * Estimates the cost of a located work item.
+     */
+    public CostEstimate estimate(WorkItem item) {
+        ArtifactLocation location = item.location();
+
+        Optional<Path> archive;
+        boolean decompile;
+        if (location.hasSource()) {
+            archive = location.sourcePath();
+            decompile = false;
+        } else if (location.hasBinary() && decompilerAvailable) {
+            archive = location.binaryPath();
+            decompile = true;
+        } else {
+            // Skipped or missing: finishes immediately
+            return new CostEstimate(item, 0, 0, false, 0);
+        }
+
+        long bytes = 0;
+        int entries = 0;
+        try {
+            bytes = Files.size(archive.get());
+            entries = entryCount(archive.get());
+        } catch (IOException e) {
+            logger.debug("Could not inspect archive for cost estimation: {}", archive.get(), e);
+        }
+
+        long cost = bytes + entries * ENTRY_COST;
+        if (decompile) {
+            cost = cost * DECOMPILE_FACTOR + DECOMPILER_STARTUP_COST;
+        }
+        return new CostEstimate(item, bytes, entries, decompile, cost);
+    }
+
+    /**
+     * Counts the entries of the archive's central directory.
+     */
+    static int entryCount(Path zipPath) throws IOException {
+        try (var archive = MappedZipArchive.open(zipPath)) {
+            return archive.size();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.mavenextractor.scheduler;
+
+import java.util.Comparator;
+
+/**
+ * Order in which dependencies are fed into the extraction pipeline.
+ */
+public enum SchedulingPolicy {
+
+    /**
+     * Keep the order reported by {@code mvn dependency:tree}.
+     */
+    TREE_ORDER(null),
+
+    /**
+     * Start the most expensive artifacts first to minimise total wall-clock time (makespan).
+     */
+    LONGEST_FIRST(Comparator.comparingLong(CostEstimate::cost).reversed()),
+
+    /**
+     * Start the cheapest artifacts first to minimise the time to first results.
+     */
+    FAST_PATH_FIRST(Comparator.comparingLong(CostEstimate::cost));
+
+    private final Comparator<CostEstimate> order;
+
+    SchedulingPolicy(Comparator<CostEstimate> order) {
+        this.order = order;
+    }
+
+    /**
+     * Returns true if this policy needs cost estimates before work can start.
+     */
+    public boolean requiresEstimates() {
+        return order != null;
+    }
+
+    Comparator<CostEstimate> order() {
+        return order;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.mavenextractor.scheduler;
+
+import com.example.mavenextractor.locator.ArtifactLocator;
+import com.example.mavenextractor.pipeline.WorkItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Orders work items according to a {@link SchedulingPolicy}.
+ * Artifacts are located and estimated up front; lookups run on virtual threads
+ * because they are dominated by file-system latency, as many at a time as the
+ * locate stage would run, since each one opens and maps a JAR.
+ */
+public class WorkScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkScheduler.class);
+
+    private final SchedulingPolicy policy;
+    private final ArtifactLocator locator;
+    private final CostEstimator estimator;
+    private final int concurrency;
+
+    /**
+     * @param concurrency maximum number of artifacts located and estimated at once
+     */
+    public WorkScheduler(SchedulingPolicy policy, ArtifactLocator locator, CostEstimator estimator, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1: " + concurrency);
+        }
+        this.policy = policy;
+        this.locator = locator;
+        this.estimator = estimator;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Returns the items in scheduling order. Items are located as a side effect
+     * unless the policy keeps the original order.
+     */
+    public List<WorkItem> order(List<WorkItem> items) throws InterruptedException {
+        if (!policy.requiresEstimates()) {
+            return items;
+        }
+
+        List<CostEstimate> estimates = new ArrayList<>(items.size());
+        Semaphore inFlight = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CostEstimate>> futures = new ArrayList<>(items.size());
+            for (WorkItem item : items) {
+                futures.add(executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        item.setLocation(locator.findArtifacts(item.dependency()));
+                        return estimator.estimate(item);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                estimates.add(estimateOf(items.get(i), futures.get(i)));
+            }
+        }
+
+        estimates.sort(policy.order());
+
+        List<WorkItem> ordered = new ArrayList<>(items.size());
+        for (CostEstimate estimate : estimates) {
+            WorkItem item = estimate.item();
+            logger.debug("Scheduled {} (cost {}, {} bytes, {} entries{})",
+                item.dependency().key(), estimate.cost(), estimate.archiveBytes(),
+                estimate.entryCount(), estimate.decompile() ? ", decompile" : "");
+            ordered.add(item);
+        }
+
+        logger.info("Scheduled {} dependencies ({})", ordered.size(), policy);
+        return ordered;
+    }
+
+    /**
+     * Returns an item's estimate. Estimates are only a scheduling hint: an item whose estimate
+     * failed gets cost 0 and keeps its place relative to the others, as the sort is stable.
+     */
+    private static CostEstimate estimateOf(WorkItem item, Future<CostEstimate> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            logger.debug("Cost estimation failed for {}", item.dependency().key(), e.getCause());
+            return new CostEstimate(item, 0, 0, false, 0);
+        }
+    }
+}
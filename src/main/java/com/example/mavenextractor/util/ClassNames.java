@@ -0,0 +1,32 @@
+package com.example.mavenextractor.util;
+
+import java.util.Set;
+
+/**
+ * Helpers for the binary class names of class file entries, such as {@code a/b/C$Inner}.
+ */
+public class ClassNames {
+
+    private ClassNames() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Returns the class whose source file holds a class: the shortest prefix ending before a
+     * {@code $} that is itself a class in the same JAR, or the class itself. A {@code $} that
+     * is part of a top-level class name does not count, since no class ends before it.
+     *
+     * @param name a class name without the {@code .class} suffix
+     * @param classes the names of all classes in the JAR, in the same form
+     */
+    public static String outerClassOf(String name, Set<String> classes) {
+        int start = name.lastIndexOf('/') + 1;
+        for (int dollar = name.indexOf('$', start + 1); dollar > 0; dollar = name.indexOf('$', dollar + 1)) {
+            String prefix = name.substring(0, dollar);
+            if (classes.contains(prefix)) {
+                return prefix;
+            }
+        }
+        return name;
+    }
+}
@@ -11,6 +11,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Utility class for executing external processes.
@@ -20,6 +21,19 @@ public class ProcessExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(ProcessExecutor.class);
 
+    /**
+     * Time a process gets to exit after a termination request before it is killed.
+     */
+    private static final Duration STOP_GRACE = Duration.ofSeconds(5);
+
+    /**
+     * Returns the launcher of the JVM running this code, so child JVMs match it whatever
+     * {@code java} is first on the PATH.
+     */
+    public static String javaLauncher() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
     /**
      * Result of a process execution.
      */
@@ -50,6 +64,28 @@ public class ProcessExecutor {
         Path workingDir,
         Duration timeout
     ) throws IOException, InterruptedException, TimeoutException {
+        return execute(command, workingDir, timeout, null);
+    }
+
+    /**
+     * Executes a command and waits for completion, streaming each stdout line to a listener
+     * as soon as it is printed.
+     *
+     * @param command the command and its arguments
+     * @param workingDir the working directory (null for current directory)
+     * @param timeout the timeout duration (null for no timeout)
+     * @param stdoutListener receives every stdout line (null for none)
+     * @return the process result
+     * @throws IOException if an I/O error occurs
+     * @throws InterruptedException if the thread is interrupted
+     * @throws TimeoutException if the process times out
+     */
+    public static ProcessResult execute(
+        List<String> command,
+        Path workingDir,
+        Duration timeout,
+        Consumer<String> stdoutListener
+    ) throws IOException, InterruptedException, TimeoutException {
 
         logger.debug("Executing command: {}", String.join(" ", command));
 
@@ -71,6 +107,9 @@ public class ProcessExecutor {
                 String line;
                 while ((line = br.readLine()) != null) {
                     stdoutCapture.append(line).append("\n");
+                    if (stdoutListener != null) {
+                        stdoutListener.accept(line);
+                    }
                 }
             } catch (IOException e) {
                 logger.error("Error reading stdout", e);
@@ -92,18 +131,25 @@ public class ProcessExecutor {
         stderrReader.start();
 
         boolean timedOut = false;
-        if (timeout != null) {
-            boolean finished = process.waitFor(timeout.toMillis(), java.util.concurrent.TimeUnit.MILLISECONDS);
-            if (!finished) {
-                process.destroyForcibly();
-                timedOut = true;
-                throw new TimeoutException("Process timed out after " + timeout);
+        try {
+            if (timeout != null) {
+                boolean finished = process.waitFor(timeout.toMillis(), java.util.concurrent.TimeUnit.MILLISECONDS);
+                if (!finished) {
+                    process.destroyForcibly();
+                    timedOut = true;
+                    throw new TimeoutException("Process timed out after " + timeout);
+                }
+            } else {
+                process.waitFor();
             }
-        } else {
-            process.waitFor();
+        } catch (InterruptedException e) {
+            // The caller gave up (e.g. run deadline): do not leave the child running
+            stop(process);
+            throw e;
         }
 
-        stdoutReader.join(1000);
+        // A listener expects every line before we return, so give the reader more time to drain
+        stdoutReader.join(stdoutListener != null ? 10_000 : 1000);
         stderrReader.join(1000);
 
         String stdout = stdoutCapture.toString();
@@ -112,6 +158,23 @@ public class ProcessExecutor {
         return new ProcessResult(process.exitValue(), stdout, stderr, timedOut);
     }
 
+    /**
+     * Stops a process cleanly: asks it to terminate, then kills it if it does not exit
+     * within {@link #STOP_GRACE}.
+     */
+    private static void stop(Process process) {
+        logger.debug("Stopping process {}", process.pid());
+        process.destroy();
+        try {
+            if (!process.waitFor(STOP_GRACE.toMillis(), java.util.concurrent.TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Executes a command with a default timeout of 2 minutes.
      */
@@ -12,10 +12,15 @@ module com.example.mavenextractor {
     // XML processing (built-in)
     requires java.xml;
 
+    // Heap statistics of decompiler workers (built-in)
+    requires java.management;
+
     // Export main package
     exports com.example.mavenextractor;
 
     // Export subpackages
+    exports com.example.mavenextractor.bundle;
+    exports com.example.mavenextractor.cache;
     exports com.example.mavenextractor.config;
     exports com.example.mavenextractor.model;
     exports com.example.mavenextractor.detector;
@@ -23,5 +28,8 @@ module com.example.mavenextractor {
     exports com.example.mavenextractor.locator;
     exports com.example.mavenextractor.decompiler;
     exports com.example.mavenextractor.extractor;
+    exports com.example.mavenextractor.journal;
+    exports com.example.mavenextractor.pipeline;
+    exports com.example.mavenextractor.scheduler;
     exports com.example.mavenextractor.util;
 }
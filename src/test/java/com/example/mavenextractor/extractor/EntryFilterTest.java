@@ -0,0 +1,130 @@
+package com.example.mavenextractor.extractor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntryFilterTest {
+
+    private static boolean matches(String glob, String name) {
+        Pattern pattern = EntryFilter.compile(glob);
+        return pattern.matcher(name).matches();
+    }
+
+    @Test
+    void starStaysWithinOneDirectory() {
+        assertTrue(matches("*.java", "A.java"));
+        assertFalse(matches("*.java", "a/A.java"));
+        assertTrue(matches("a/*/C.java", "a/b/C.java"));
+        assertFalse(matches("a/*/C.java", "a/b/c/C.java"));
+    }
+
+    @Test
+    void doubleStarSpansDirectories() {
+        assertTrue(matches("a/**", "a/b/c/D.java"));
+        assertTrue(matches("**.java", "a/b/C.java"));
+        assertFalse(matches("a/**", "b/a/C.java"));
+    }
+
+    @Test
+    void doubleStarSlashMatchesZeroOrMoreDirectories() {
+        assertTrue(matches("**/*.java", "A.java"));
+        assertTrue(matches("**/*.java", "a/b/A.java"));
+        assertTrue(matches("META-INF/**/pom.xml", "META-INF/pom.xml"));
+        assertTrue(matches("META-INF/**/pom.xml", "META-INF/maven/g/a/pom.xml"));
+    }
+
+    @Test
+    void questionMarkMatchesOneCharacterButNotASeparator() {
+        assertTrue(matches("a?c", "abc"));
+        assertFalse(matches("a?c", "a/c"));
+        assertFalse(matches("a?c", "ac"));
+    }
+
+    @Test
+    void bracesAreAlternatives() {
+        assertTrue(matches("**/*.{java,kt}", "a/B.kt"));
+        assertTrue(matches("**/*.{java,kt}", "a/B.java"));
+        assertFalse(matches("**/*.{java,kt}", "a/B.class"));
+        assertTrue(matches("a,b", "a,b"));
+    }
+
+    @Test
+    void regexMetacharactersAreLiterals() {
+        assertTrue(matches("a.b+c$(d)|e", "a.b+c$(d)|e"));
+        assertFalse(matches("a.b", "axb"));
+        assertTrue(matches("a\\*b", "a*b"));
+        assertFalse(matches("a\\*b", "axb"));
+    }
+
+    @Test
+    void characterClassesAndRanges() {
+        assertTrue(matches("[abc].txt", "b.txt"));
+        assertFalse(matches("[abc].txt", "d.txt"));
+        assertTrue(matches("v[0-9]", "v7"));
+        assertTrue(matches("[!a]", "b"));
+        assertFalse(matches("[!a]", "a"));
+        assertTrue(matches("[^a]", "b"));
+        assertFalse(matches("[^a]", "a"));
+    }
+
+    @Test
+    void characterClassBodiesAreLiteral() {
+        // Would be an intersection in a regular expression class
+        assertTrue(matches("[a&&b]", "&"));
+        assertTrue(matches("[a&&b]", "a"));
+        assertTrue(matches("[a&&b]", "b"));
+        // Would open a nested class
+        assertTrue(matches("[[]", "["));
+        assertTrue(matches("[a[b]", "["));
+        // Would escape the next character
+        assertTrue(matches("[\\]", "\\"));
+        // A caret past the start is a member, not a negation
+        assertTrue(matches("[a^]", "^"));
+        assertFalse(matches("[a^]", "b"));
+    }
+
+    @Test
+    void malformedGlobsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> EntryFilter.compile("[abc"));
+        assertThrows(IllegalArgumentException.class, () -> EntryFilter.compile("[]"));
+        assertThrows(IllegalArgumentException.class, () -> EntryFilter.compile("[!]"));
+        assertThrows(IllegalArgumentException.class, () -> EntryFilter.compile("[z-a]"));
+        assertThrows(IllegalArgumentException.class, () -> EntryFilter.compile("{a,b"));
+        assertThrows(IllegalArgumentException.class, () -> EntryFilter.compile("a}"));
+    }
+
+    @Test
+    void includesAndExcludesCombine() {
+        EntryFilter filter = EntryFilter.of(List.of("**/*.java"), List.of("**/internal/**"));
+        assertTrue(filter.accepts("a/B.java"));
+        assertFalse(filter.accepts("a/B.class"));
+        assertFalse(filter.accepts("a/internal/B.java"));
+
+        EntryFilter excludeOnly = EntryFilter.of(List.of(), List.of("META-INF/**"));
+        assertTrue(excludeOnly.accepts("a/B.class"));
+        assertFalse(excludeOnly.accepts("META-INF/MANIFEST.MF"));
+    }
+
+    @Test
+    void emptyFilterAcceptsAll() {
+        EntryFilter filter = EntryFilter.of(List.of(), List.of());
+        assertSame(EntryFilter.ALL, filter);
+        assertTrue(filter.acceptsAll());
+        assertEquals("", filter.toString());
+    }
+
+    @Test
+    void canonicalForm() {
+        assertEquals("+**/*.java +**/*.kt -META-INF/**",
+            EntryFilter.of(List.of("**/*.java", "**/*.kt"), List.of("META-INF/**")).toString());
+        assertEquals("-META-INF/**", EntryFilter.of(List.of(), List.of("META-INF/**")).toString());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.mavenextractor.extractor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedZipArchiveTest {
+
+    private static final byte[] HELLO = "hello, world\n".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private static byte[] zip(String comment, int extraEntries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry("a/"));
+            out.closeEntry();
+
+            ZipEntry stored = new ZipEntry("a/Stored.txt");
+            CRC32 crc = new CRC32();
+            crc.update(HELLO);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(HELLO.length);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(HELLO);
+            out.closeEntry();
+
+            out.putNextEntry(new ZipEntry("a/Deflated.class"));
+            out.write(new byte[1000]);
+            out.closeEntry();
+
+            for (int i = 0; i < extraEntries; i++) {
+                out.putNextEntry(new ZipEntry("extra/" + i + ".txt"));
+                out.closeEntry();
+            }
+            if (comment != null) {
+                out.setComment(comment);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private Path write(byte[]... parts) throws IOException {
+        Path file = Files.createTempFile(dir, "archive", ".zip");
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            all.write(part);
+        }
+        return Files.write(file, all.toByteArray());
+    }
+
+    private static byte[] readStored(MappedZipArchive archive, MappedZipArchive.Cursor cursor) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive.path(), StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate((int) cursor.size());
+            channel.read(data, cursor.dataOffset(channel));
+            return data.array();
+        }
+    }
+
+    @Test
+    void readsCentralDirectoryEntries() throws IOException {
+        try (MappedZipArchive archive = MappedZipArchive.open(write(zip(null, 0)))) {
+            assertEquals(3, archive.size());
+            MappedZipArchive.Cursor cursor = archive.cursor();
+
+            assertTrue(cursor.next());
+            assertEquals("a/", cursor.name());
+            assertTrue(cursor.isDirectory());
+
+            assertTrue(cursor.next());
+            assertEquals("a/Stored.txt", cursor.name());
+            assertFalse(cursor.isDirectory());
+            assertEquals(ZipEntry.STORED, cursor.method());
+            assertEquals(HELLO.length, cursor.size());
+            assertEquals(HELLO.length, cursor.compressedSize());
+            CRC32 crc = new CRC32();
+            crc.update(HELLO);
+            assertEquals(crc.getValue(), cursor.crc());
+            assertArrayEquals(HELLO, readStored(archive, cursor));
+
+            assertTrue(cursor.next());
+            assertTrue(cursor.nameEndsWith(".class"));
+            assertFalse(cursor.nameEndsWith(".java"));
+            assertFalse(cursor.nameEndsWith("a/very/long/suffix/Deflated.class"));
+            assertEquals(ZipEntry.DEFLATED, cursor.method());
+            assertEquals(1000, cursor.size());
+            assertTrue(cursor.compressedSize() < 1000);
+
+            assertFalse(cursor.next());
+            assertEquals("a/Stored.txt", cursor.moveTo(1).name());
+        }
+    }
+
+    @Test
+    void indexesMoreEntriesThanTheInitialEstimate() throws IOException {
+        try (MappedZipArchive archive = MappedZipArchive.open(write(zip(null, 500)))) {
+            assertEquals(503, archive.size());
+            List<String> names = new ArrayList<>();
+            for (MappedZipArchive.Cursor cursor = archive.cursor(); cursor.next(); ) {
+                names.add(cursor.name());
+            }
+            assertEquals("extra/499.txt", names.get(502));
+        }
+    }
+
+    @Test
+    void findsEndOfCentralDirectoryBeforeAComment() throws IOException {
+        try (MappedZipArchive archive = MappedZipArchive.open(write(zip("x".repeat(1000), 0)))) {
+            assertEquals(3, archive.size());
+        }
+    }
+
+    @Test
+    void shiftsOffsetsPastPrependedData() throws IOException {
+        byte[] launcher = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n".getBytes(StandardCharsets.UTF_8);
+        try (MappedZipArchive archive = MappedZipArchive.open(write(launcher, zip(null, 0)))) {
+            MappedZipArchive.Cursor cursor = archive.cursor().moveTo(0);
+            assertEquals(launcher.length, cursor.localHeaderOffset());
+            assertArrayEquals(HELLO, readStored(archive, cursor.moveTo(1)));
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotArchives() throws IOException {
+        assertThrows(ZipException.class, () -> MappedZipArchive.open(write(new byte[10])));
+        assertThrows(ZipException.class, () -> MappedZipArchive.open(write(new byte[4096])));
+    }
+
+    @Test
+    void rejectsTruncatedCentralDirectory() throws IOException {
+        byte[] zip = zip(null, 0);
+        ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        int eocd = zip.length - 22;
+        // Claim a longer name for the last header than the directory holds
+        int directoryOffset = buffer.getInt(eocd + 16);
+        int directorySize = buffer.getInt(eocd + 12);
+        int last = directoryOffset;
+        for (int pos = directoryOffset; pos < directoryOffset + directorySize; ) {
+            last = pos;
+            pos += 46 + Short.toUnsignedInt(buffer.getShort(pos + 28))
+                + Short.toUnsignedInt(buffer.getShort(pos + 30))
+                + Short.toUnsignedInt(buffer.getShort(pos + 32));
+        }
+        buffer.putShort(last + 28, (short) 1000);
+        assertThrows(ZipException.class, () -> MappedZipArchive.open(write(zip)));
+    }
+
+    @Test
+    void reportsMissingZip64FieldAsZipException() throws IOException {
+        byte[] zip = zip(null, 0);
+        ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        int firstHeader = buffer.getInt(zip.length - 22 + 16);
+        // Mark the sizes as stored in a ZIP64 extra field the entry does not have
+        buffer.putInt(firstHeader + 20, -1);
+        buffer.putInt(firstHeader + 24, -1);
+        try (MappedZipArchive archive = MappedZipArchive.open(write(zip))) {
+            MappedZipArchive.Cursor cursor = archive.cursor().moveTo(0);
+            assertThrows(ZipException.class, cursor::size);
+            assertThrows(ZipException.class, cursor::compressedSize);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mavenextractor.extractor;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelGzipInputStreamTest {
+
+    private static ExecutorService executor;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Random, hence incompressible, members large enough that the file spans several chunks.
+     */
+    private static byte[][] members(int count, int size) {
+        Random random = new Random(42);
+        byte[][] members = new byte[count][size];
+        for (byte[] member : members) {
+            random.nextBytes(member);
+        }
+        return members;
+    }
+
+    private Path write(byte[]... parts) throws IOException {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            all.write(part);
+        }
+        return Files.write(Files.createTempFile(dir, "data", ".gz"), all.toByteArray());
+    }
+
+    private static byte[] concat(byte[][] parts) throws IOException {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            all.write(part);
+        }
+        return all.toByteArray();
+    }
+
+    private static byte[] readAll(Path file) throws IOException {
+        try (InputStream in = ParallelGzipInputStream.open(file, executor, 4)) {
+            assertNotNull(in);
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void inflatesMembersInOrder() throws IOException {
+        byte[][] members = members(8, 600 * 1024);
+        byte[][] compressed = new byte[members.length][];
+        for (int i = 0; i < members.length; i++) {
+            compressed[i] = gzip(members[i]);
+        }
+        assertArrayEquals(concat(members), readAll(write(compressed)));
+    }
+
+    @Test
+    void inflatesManySmallMembers() throws IOException {
+        byte[][] members = members(2000, 1500);
+        byte[][] compressed = new byte[members.length][];
+        for (int i = 0; i < members.length; i++) {
+            compressed[i] = gzip(members[i]);
+        }
+        assertArrayEquals(concat(members), readAll(write(compressed)));
+    }
+
+    @Test
+    void stopsAtTrailingGarbage() throws IOException {
+        byte[][] members = members(3, 700 * 1024);
+        byte[] garbage = new byte[100];
+        assertArrayEquals(concat(members),
+            readAll(write(gzip(members[0]), gzip(members[1]), gzip(members[2]), garbage)));
+    }
+
+    @Test
+    void leavesSingleMemberFilesToTheSequentialReader() throws IOException {
+        assertNull(ParallelGzipInputStream.open(write(gzip(members(1, 4096)[0])), executor, 4));
+        assertNull(ParallelGzipInputStream.open(write(new byte[100]), executor, 4));
+    }
+
+    @Test
+    void detectsCorruptMembers() throws IOException {
+        byte[][] members = members(4, 600 * 1024);
+        byte[] broken = gzip(members[2]);
+        // Flip a bit of the stored CRC
+        broken[broken.length - 8] ^= 1;
+        Path file = write(gzip(members[0]), gzip(members[1]), broken, gzip(members[3]));
+        assertThrows(ZipException.class, () -> readAll(file));
+    }
+}